@@ -0,0 +1,49 @@
+package com.theawesomeengineer.taskmanager.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and error counts for each operation.
+ * Latencies are recorded in microseconds from the time a request was SUPPOSED to be sent,
+ * not when it actually went out, so a stalled server can't hide its queueing delay
+ * (this is what "coordinated omission" correction means).
+ */
+public class LatencyStats {
+
+    // Anything slower than this is clamped - requests time out well before it anyway
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+    public LatencyStats() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    // Safe to call from many threads at once
+    public void record(Operation operation, long latencyNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS);
+        recorders.get(operation).recordValue(micros);
+        if (!success) {
+            errors.get(operation).incrementAndGet();
+        }
+    }
+
+    // Everything recorded for one operation since the last call - call it once when the run is over
+    public Histogram histogram(Operation operation) {
+        return recorders.get(operation).getIntervalHistogram();
+    }
+
+    public long errors(Operation operation) {
+        return errors.get(operation).get();
+    }
+}
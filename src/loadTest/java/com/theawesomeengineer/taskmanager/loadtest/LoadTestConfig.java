@@ -0,0 +1,145 @@
+package com.theawesomeengineer.taskmanager.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for one load test run.
+ * Everything comes from system properties so the Gradle task can pass them with -Ploadtest.xxx=...
+ */
+public class LoadTestConfig {
+
+    // Name of the run - reports are written to <reportDir>/<label> so two runs can be diffed
+    private final String label;
+
+    // Requests per second, sent at a fixed rate no matter how fast the app answers (open model)
+    private final int rate;
+
+    // How long to send traffic before we start recording
+    private final int warmupSeconds;
+
+    // How long to record latencies
+    private final int durationSeconds;
+
+    // How many tasks exist before the run starts (this is also the size of GET /tasks)
+    private final int seedTasks;
+
+    // Length of the description sent on create/update
+    private final int descriptionLength;
+
+    // How skewed the task IDs are: 0 = uniform, ~1 = a few hot tasks get most of the traffic
+    private final double zipfExponent;
+
+    // Seed for the random generator, so the same settings produce the same request sequence
+    private final long randomSeed;
+
+    // Weight of each operation, e.g. getTaskById -> 70
+    private final Map<Operation, Integer> mix;
+
+    // Where to write reports
+    private final String reportDir;
+
+    public LoadTestConfig(String label, int rate, int warmupSeconds, int durationSeconds, int seedTasks,
+                          int descriptionLength, double zipfExponent, long randomSeed,
+                          Map<Operation, Integer> mix, String reportDir) {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("loadtest.rate must be positive");
+        }
+        if (seedTasks <= 0) {
+            throw new IllegalArgumentException("loadtest.seedTasks must be positive");
+        }
+        this.label = label;
+        this.rate = rate;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.seedTasks = seedTasks;
+        this.descriptionLength = descriptionLength;
+        this.zipfExponent = zipfExponent;
+        this.randomSeed = randomSeed;
+        this.mix = mix;
+        this.reportDir = reportDir;
+    }
+
+    // Read the settings from system properties, using defaults for anything not set
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+            System.getProperty("loadtest.label", "local"),
+            Integer.parseInt(System.getProperty("loadtest.rate", "200")),
+            Integer.parseInt(System.getProperty("loadtest.warmupSeconds", "15")),
+            Integer.parseInt(System.getProperty("loadtest.durationSeconds", "60")),
+            Integer.parseInt(System.getProperty("loadtest.seedTasks", "1000")),
+            Integer.parseInt(System.getProperty("loadtest.descriptionLength", "200")),
+            Double.parseDouble(System.getProperty("loadtest.zipfExponent", "0.99")),
+            Long.parseLong(System.getProperty("loadtest.seed", "42")),
+            parseMix(System.getProperty("loadtest.mix",
+                "getAllTasks:5,getTaskById:50,batchGetTasks:10,getDueSoonTasks:5,createTask:10,"
+                    + "updateTask:5,patchTask:5,getTaskHistory:5,deleteTask:5")),
+            System.getProperty("loadtest.reportDir", "build/reports/loadtest"));
+    }
+
+    // Parse "getTaskById:70,createTask:10" into a map of weights
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] nameAndWeight = part.trim().split(":");
+            if (nameAndWeight.length != 2) {
+                throw new IllegalArgumentException("Bad loadtest.mix entry: " + part);
+            }
+            int weight = Integer.parseInt(nameAndWeight[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.fromName(nameAndWeight[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix needs at least one operation");
+        }
+        return mix;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getSeedTasks() {
+        return seedTasks;
+    }
+
+    public int getDescriptionLength() {
+        return descriptionLength;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+
+    public Map<Operation, Integer> getMix() {
+        return mix;
+    }
+
+    public String getReportDir() {
+        return reportDir;
+    }
+
+    @Override
+    public String toString() {
+        return "label=" + label + ", rate=" + rate + "/s, warmup=" + warmupSeconds + "s, duration="
+            + durationSeconds + "s, seedTasks=" + seedTasks + ", descriptionLength=" + descriptionLength
+            + ", zipfExponent=" + zipfExponent + ", seed=" + randomSeed + ", mix=" + mix;
+    }
+}
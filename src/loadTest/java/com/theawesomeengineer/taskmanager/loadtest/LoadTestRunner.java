@@ -0,0 +1,146 @@
+package com.theawesomeengineer.taskmanager.loadtest;
+
+import com.theawesomeengineer.taskmanager.TaskmanagerApplication;
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.repository.TaskRepository;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Load test for the Task API - run it with ./gradlew loadTest
+ *
+ * 1. Starts the app in-process with the "loadtest" profile (embedded H2 database, random port,
+ *    no background jobs, data files in a temporary directory)
+ * 2. Seeds the tasks table
+ * 3. Sends requests at a fixed rate (open model: we don't wait for a response before sending the next one)
+ *    for a warm-up period, then for the measured period
+ * 4. Writes HdrHistogram reports to build/reports/loadtest/<label>
+ */
+public class LoadTestRunner {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.out.println("Starting load test: " + config);
+
+        SpringApplication application = new SpringApplication(TaskmanagerApplication.class);
+        application.setAdditionalProfiles("loadtest");
+
+        // A fresh directory for the files the app writes, so earlier runs can't affect this one
+        Path dataDir = Files.createTempDirectory("taskmanager-loadtest");
+        String[] appArgs = {
+            "--server.port=0",
+            "--taskmanager.history.directory=" + dataDir.resolve("history"),
+            "--taskmanager.archive.directory=" + dataDir.resolve("archive"),
+            "--taskmanager.warmup.hot-ids-file=" + dataDir.resolve("hot-task-ids.txt")
+        };
+
+        try (ConfigurableApplicationContext context = application.run(appArgs)) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            String baseUrl = "http://localhost:" + port;
+
+            List<Long> taskIds = seedTasks(context.getBean(TaskRepository.class), config);
+            Workload workload = new Workload(config, baseUrl, taskIds);
+
+            HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(16))
+                .build();
+
+            // Warm-up: same traffic, results thrown away
+            System.out.println("Warming up for " + config.getWarmupSeconds() + "s");
+            run(client, workload, config, config.getWarmupSeconds(), new LatencyStats());
+
+            System.out.println("Measuring for " + config.getDurationSeconds() + "s");
+            LatencyStats stats = new LatencyStats();
+            run(client, workload, config, config.getDurationSeconds(), stats);
+
+            Path reports = new ReportWriter(config).write(stats);
+            System.out.println("Reports written to " + reports.toAbsolutePath());
+        }
+        System.exit(0);
+    }
+
+    // Insert the starting tasks directly through the repository (much faster than the API)
+    private static List<Long> seedTasks(TaskRepository taskRepository, LoadTestConfig config) {
+        String description = "s".repeat(Math.max(1, config.getDescriptionLength()));
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < config.getSeedTasks(); i++) {
+            tasks.add(new Task("Seed task " + i, description, i % 2 == 0));
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (Task saved : taskRepository.saveAll(tasks)) {
+            ids.add(saved.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Send requests at config.getRate() per second for the given number of seconds.
+     * Each request has an "intended start time" on a fixed schedule. Latency is measured
+     * from that time, so if the sender or the server falls behind the delay still shows up.
+     */
+    private static void run(HttpClient client, Workload workload, LoadTestConfig config,
+                            int seconds, LatencyStats stats) {
+        long rate = config.getRate();
+        long start = System.nanoTime();
+        long total = rate * seconds;
+
+        // Requests still in flight, so we can wait for them at the end
+        AtomicLong inFlight = new AtomicLong();
+
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + (i * TimeUnit.SECONDS.toNanos(1)) / rate;
+            sleepUntil(intendedStart);
+
+            Workload.LoadRequest request = workload.next();
+            Operation operation = request.getOperation();
+            inFlight.incrementAndGet();
+
+            client.sendAsync(request.getHttpRequest(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    try {
+                        long latency = System.nanoTime() - intendedStart;
+                        boolean success = error == null && response.statusCode() / 100 == 2;
+                        stats.record(operation, latency, success);
+
+                        if (success && operation == Operation.CREATE_TASK) {
+                            Matcher matcher = ID_PATTERN.matcher(response.body());
+                            if (matcher.find()) {
+                                workload.taskCreated(Long.parseLong(matcher.group(1)));
+                            }
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                });
+        }
+
+        while (inFlight.get() > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
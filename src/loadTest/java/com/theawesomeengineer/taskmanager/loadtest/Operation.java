@@ -0,0 +1,36 @@
+package com.theawesomeengineer.taskmanager.loadtest;
+
+/**
+ * The TasksApi endpoints the load test can call.
+ * The names match the operationIds in openapi.yaml.
+ */
+public enum Operation {
+    GET_ALL_TASKS("getAllTasks"),
+    GET_TASK_BY_ID("getTaskById"),
+    CREATE_TASK("createTask"),
+    UPDATE_TASK("updateTask"),
+    DELETE_TASK("deleteTask"),
+    PATCH_TASK("patchTask"),
+    GET_TASK_HISTORY("getTaskHistory"),
+    GET_DUE_SOON_TASKS("getDueSoonTasks"),
+    BATCH_GET_TASKS("batchGetTasks");
+
+    private final String operationId;
+
+    Operation(String operationId) {
+        this.operationId = operationId;
+    }
+
+    public String getOperationId() {
+        return operationId;
+    }
+
+    public static Operation fromName(String name) {
+        for (Operation operation : values()) {
+            if (operation.operationId.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation: " + name);
+    }
+}
@@ -0,0 +1,100 @@
+package com.theawesomeengineer.taskmanager.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the results of a run:
+ * - <operation>.hgrm: full HdrHistogram percentile distribution (in milliseconds) per operation
+ * - summary.csv: one line per operation, stable format so runs from two commits can be diffed
+ * - summary.txt: the same numbers plus the settings used, easier to read
+ */
+public class ReportWriter {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadTestConfig config;
+
+    public ReportWriter(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public Path write(LatencyStats stats) throws IOException {
+        Path directory = Path.of(config.getReportDir(), config.getLabel());
+        Files.createDirectories(directory);
+
+        // Grab every histogram once, and build a combined one for all operations
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        Histogram all = null;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = stats.histogram(operation);
+            histograms.put(operation, histogram);
+            if (all == null) {
+                all = histogram.copy();
+            } else {
+                all.add(histogram);
+            }
+        }
+
+        StringBuilder csv = new StringBuilder("operation,count,errors,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms\n");
+        StringBuilder text = new StringBuilder();
+        text.append("Load test '").append(config.getLabel()).append("'\n");
+        text.append(config).append("\n\n");
+        text.append(String.format(Locale.ROOT, "%-12s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+            "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            long errors = stats.errors(operation);
+            totalErrors += errors;
+            appendLine(csv, text, operation.getOperationId(), histogram, errors);
+
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(directory.resolve(operation.getOperationId() + ".hgrm")),
+                    false, StandardCharsets.UTF_8)) {
+                histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        appendLine(csv, text, "all", all, totalErrors);
+
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("all.hgrm")),
+                false, StandardCharsets.UTF_8)) {
+            all.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+
+        Files.writeString(directory.resolve("summary.csv"), csv.toString());
+        Files.writeString(directory.resolve("summary.txt"), text.toString());
+        System.out.println(text);
+        return directory;
+    }
+
+    private void appendLine(StringBuilder csv, StringBuilder text, String name, Histogram histogram, long errors) {
+        double throughput = histogram.getTotalCount() / (double) config.getDurationSeconds();
+        double p50 = millis(histogram.getValueAtPercentile(50));
+        double p90 = millis(histogram.getValueAtPercentile(90));
+        double p99 = millis(histogram.getValueAtPercentile(99));
+        double p999 = millis(histogram.getValueAtPercentile(99.9));
+        double max = millis(histogram.getMaxValue());
+
+        csv.append(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+            name, histogram.getTotalCount(), errors, throughput, p50, p90, p99, p999, max));
+        text.append(String.format(Locale.ROOT, "%-12s %9d %7d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+            name, histogram.getTotalCount(), errors, throughput, p50, p90, p99, p999, max));
+    }
+
+    private double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
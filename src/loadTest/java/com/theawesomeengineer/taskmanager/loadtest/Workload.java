@@ -0,0 +1,177 @@
+package com.theawesomeengineer.taskmanager.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Decides what the next request is: which operation (by the configured mix)
+ * and which task ID (by the Zipf key skew).
+ * next() is called from the single pacing thread; the ID pool is also touched
+ * from HTTP callbacks when a create finishes, so those methods are synchronized.
+ */
+public class Workload {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int BATCH_GET_SIZE = 20;
+    private static final String JSON = "application/json";
+    // PATCH /tasks/{id} only accepts JSON merge patch
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    private final String baseUrl;
+    private final Random random;
+    private final ZipfSampler zipfSampler;
+
+    // Operations with cumulative weights, so we can pick one with a single random number
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    // IDs of tasks that currently exist. Index 0 is the hottest for the Zipf sampler.
+    private final List<Long> taskIds;
+
+    private final String description;
+    private long requestCounter;
+
+    public Workload(LoadTestConfig config, String baseUrl, List<Long> seededTaskIds) {
+        this.baseUrl = baseUrl;
+        this.random = new Random(config.getRandomSeed());
+        this.zipfSampler = new ZipfSampler(seededTaskIds.size(), config.getZipfExponent());
+        this.taskIds = new ArrayList<>(seededTaskIds);
+        this.description = "d".repeat(Math.max(1, config.getDescriptionLength()));
+
+        Map<Operation, Integer> mix = config.getMix();
+        this.operations = new Operation[mix.size()];
+        this.cumulativeWeights = new int[mix.size()];
+        int total = 0;
+        int index = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            total += entry.getValue();
+            operations[index] = entry.getKey();
+            cumulativeWeights[index] = total;
+            index++;
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * Build the next request to send.
+     */
+    public synchronized LoadRequest next() {
+        requestCounter++;
+        Operation operation = pickOperation();
+
+        switch (operation) {
+            case GET_ALL_TASKS:
+                return new LoadRequest(operation, get("/tasks"));
+            case GET_TASK_BY_ID:
+                return new LoadRequest(operation, get("/tasks/" + pickTaskId()));
+            case CREATE_TASK:
+                return new LoadRequest(operation, send("POST", "/tasks", JSON, taskJson()));
+            case UPDATE_TASK:
+                return new LoadRequest(operation, send("PUT", "/tasks/" + pickTaskId(), JSON, taskJson()));
+            case DELETE_TASK:
+                // Delete the newest task so the hot (low-rank) tasks stay stable during the run
+                if (taskIds.size() <= 1) {
+                    return new LoadRequest(Operation.GET_TASK_BY_ID, get("/tasks/" + pickTaskId()));
+                }
+                Long id = taskIds.remove(taskIds.size() - 1);
+                return new LoadRequest(operation, delete("/tasks/" + id));
+            case PATCH_TASK:
+                return new LoadRequest(operation, send("PATCH", "/tasks/" + pickTaskId(), MERGE_PATCH_JSON,
+                    "{\"completed\":" + random.nextBoolean() + "}"));
+            case GET_TASK_HISTORY:
+                return new LoadRequest(operation, get("/tasks/" + pickTaskId() + "/history"));
+            case GET_DUE_SOON_TASKS:
+                return new LoadRequest(operation, get("/tasks/due-soon?withinMinutes=60"));
+            case BATCH_GET_TASKS:
+                return new LoadRequest(operation, send("POST", "/tasks:batchGet", JSON, batchGetJson()));
+            default:
+                throw new IllegalStateException("Unknown operation " + operation);
+        }
+    }
+
+    // Called when a create finishes, so the new task can be updated/deleted later
+    public synchronized void taskCreated(long id) {
+        taskIds.add(id);
+    }
+
+    private Operation pickOperation() {
+        int value = random.nextInt(totalWeight);
+        for (int i = 0; i < operations.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private long pickTaskId() {
+        int rank = zipfSampler.next(random);
+        return taskIds.get(rank % taskIds.size());
+    }
+
+    private String taskJson() {
+        return "{\"title\":\"Load test task " + requestCounter + "\",\"description\":\"" + description
+            + "\",\"completed\":" + random.nextBoolean() + "}";
+    }
+
+    // IDs for a batch get, picked with the same key skew as single gets
+    private String batchGetJson() {
+        StringBuilder json = new StringBuilder("{\"ids\":[");
+        for (int i = 0; i < BATCH_GET_SIZE; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(pickTaskId());
+        }
+        return json.append("]}").toString();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(REQUEST_TIMEOUT)
+            .GET()
+            .build();
+    }
+
+    private HttpRequest delete(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(REQUEST_TIMEOUT)
+            .DELETE()
+            .build();
+    }
+
+    private HttpRequest send(String method, String path, String contentType, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", contentType)
+            .method(method, HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    /**
+     * One request to send, together with the operation it belongs to.
+     */
+    public static class LoadRequest {
+        private final Operation operation;
+        private final HttpRequest httpRequest;
+
+        public LoadRequest(Operation operation, HttpRequest httpRequest) {
+            this.operation = operation;
+            this.httpRequest = httpRequest;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public HttpRequest getHttpRequest() {
+            return httpRequest;
+        }
+    }
+}
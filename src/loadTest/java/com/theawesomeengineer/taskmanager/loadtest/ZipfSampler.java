@@ -0,0 +1,43 @@
+package com.theawesomeengineer.taskmanager.loadtest;
+
+import java.util.Random;
+
+/**
+ * Picks a rank between 0 and size-1 following a Zipf distribution.
+ * Rank 0 is the hottest. An exponent of 0 gives a uniform distribution.
+ */
+public class ZipfSampler {
+
+    // cumulative[i] = probability of picking a rank <= i
+    private final double[] cumulative;
+
+    public ZipfSampler(int size, double exponent) {
+        cumulative = new double[size];
+
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    public int next(Random random) {
+        double value = random.nextDouble();
+
+        // Binary search for the first rank whose cumulative probability is >= value
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -1,13 +1,23 @@
 package com.theawesomeengineer.taskmanager;
 
+import org.openapitools.jackson.nullable.JsonNullableModule;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TaskmanagerApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(TaskmanagerApplication.class, args);
 	}
 
+	// Lets Jackson read nullable request fields (like TaskPatch.dueAt) that must tell "null" apart from "not sent"
+	@Bean
+	public JsonNullableModule jsonNullableModule() {
+		return new JsonNullableModule();
+	}
+
 }
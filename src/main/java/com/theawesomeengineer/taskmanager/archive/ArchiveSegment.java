@@ -0,0 +1,294 @@
+package com.theawesomeengineer.taskmanager.archive;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * One read-only archive segment file (see SegmentFormat for the layout).
+ * The file is memory-mapped, so the operating system pages it in only when a block is read.
+ * The small block index (first/last ID per block) is kept in memory; finding a task means
+ * a binary search of the index and unpacking just the one block that can hold it.
+ *
+ * Deleting an archived task doesn't change the file: the ID goes into a small "deleted IDs"
+ * file next to it (segment name + ".deleted"). Only IDs of tasks in this segment go there,
+ * so the deleted IDs kept in memory can never outgrow the segment itself.
+ */
+public class ArchiveSegment {
+
+    private static final String DELETED_IDS_SUFFIX = ".deleted";
+
+    private final Path file;
+    private final MappedByteBuffer data;
+    private final int rowCount;
+
+    // The sparse index - one entry per block
+    private final long[] firstIds;
+    private final long[] lastIds;
+    private final long[] offsets;
+    private final int[] lengths;
+
+    // Tasks of this segment that have been deleted since it was written
+    private final Path deletedIdsFile;
+    private final Set<Long> deletedIds = ConcurrentHashMap.newKeySet();
+    private long deletedIdsBytesRead;
+
+    public ArchiveSegment(Path file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (data.capacity() < SegmentFormat.HEADER_SIZE + SegmentFormat.FOOTER_SIZE
+            || data.getInt(0) != SegmentFormat.MAGIC
+            || data.getInt(data.capacity() - 4) != SegmentFormat.MAGIC) {
+            throw new IOException("Not a task archive segment: " + file);
+        }
+        int version = data.getInt(4);
+        if (version != SegmentFormat.VERSION) {
+            throw new IOException("Unsupported archive segment version " + version + ": " + file);
+        }
+
+        int footer = data.capacity() - SegmentFormat.FOOTER_SIZE;
+        long indexOffset = data.getLong(footer);
+        int blockCount = data.getInt(footer + 8);
+        this.rowCount = data.getInt(footer + 12);
+
+        firstIds = new long[blockCount];
+        lastIds = new long[blockCount];
+        offsets = new long[blockCount];
+        lengths = new int[blockCount];
+        for (int block = 0; block < blockCount; block++) {
+            int position = (int) indexOffset + block * SegmentFormat.INDEX_ENTRY_SIZE;
+            firstIds[block] = data.getLong(position);
+            lastIds[block] = data.getLong(position + 8);
+            offsets[block] = data.getLong(position + 16);
+            lengths[block] = data.getInt(position + 24);
+        }
+
+        this.deletedIdsFile = file.resolveSibling(file.getFileName() + DELETED_IDS_SUFFIX);
+        readDeletedIds();
+    }
+
+    /**
+     * Find a task by ID. Returns empty if this segment doesn't have it.
+     */
+    public Optional<Task> find(long id) {
+        int block = findBlock(id);
+        if (block < 0) {
+            return Optional.empty();
+        }
+        return readFromBlock(block, id);
+    }
+
+    public boolean mightContain(long id) {
+        return firstIds.length > 0 && id >= firstIds[0] && id <= lastIds[lastIds.length - 1];
+    }
+
+    // The highest task ID in this segment (Long.MIN_VALUE if it is empty)
+    public long getLastId() {
+        return lastIds.length > 0 ? lastIds[lastIds.length - 1] : Long.MIN_VALUE;
+    }
+
+    public boolean isDeleted(long id) {
+        return deletedIds.contains(id);
+    }
+
+    /**
+     * Mark a task of this segment as deleted. When this returns, the ID is safely on disk.
+     */
+    public synchronized void markDeleted(long id) throws IOException {
+        if (deletedIds.contains(id)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(deletedIdsFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(id).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        deletedIds.add(id);
+    }
+
+    /**
+     * Read IDs added to the deleted IDs file since last time (another instance may have deleted some).
+     */
+    public synchronized void readDeletedIds() throws IOException {
+        if (!Files.exists(deletedIdsFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(deletedIdsFile, StandardOpenOption.READ)) {
+            // Only whole IDs - another instance may be halfway through writing one
+            long available = (channel.size() - deletedIdsBytesRead) / Long.BYTES * Long.BYTES;
+            if (available <= 0) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) available);
+            channel.position(deletedIdsBytesRead);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading
+            }
+            buffer.flip();
+            while (buffer.remaining() >= Long.BYTES) {
+                deletedIds.add(buffer.getLong());
+            }
+            deletedIdsBytesRead += available;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    // Binary search the index for the block whose ID range covers this ID
+    private int findBlock(long id) {
+        int low = 0;
+        int high = firstIds.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (id < firstIds[middle]) {
+                high = middle - 1;
+            } else if (id > lastIds[middle]) {
+                low = middle + 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private Optional<Task> readFromBlock(int block, long id) {
+        ByteBuffer in = ByteBuffer.wrap(decompress(block));
+        int count = (int) SegmentFormat.readVarLong(in);
+
+        // IDs column - find the row we want
+        int row = -1;
+        long currentId = 0;
+        for (int i = 0; i < count; i++) {
+            currentId += SegmentFormat.readVarLong(in);
+            if (currentId == id) {
+                row = i;
+            }
+        }
+        if (row < 0) {
+            return Optional.empty();
+        }
+
+        long createdAt = readTime(in, count, row);
+        long updatedAt = readTime(in, count, row);
+
+        boolean completed = in.get(in.position() + row) == 1;
+        in.position(in.position() + count);
+
+        String title = readString(in, count, row);
+        String description = readString(in, count, row);
+
+        Task task = new Task(title, description, completed);
+        task.setId(id);
+        task.setCreatedAt(SegmentFormat.fromMicros(createdAt));
+        task.setUpdatedAt(SegmentFormat.fromMicros(updatedAt));
+        readDueAtAndPriority(in, count, row, task);
+        return Optional.of(task);
+    }
+
+    // Times are stored as differences, so add them up to the row (and skip the rest of the column)
+    private long readTime(ByteBuffer in, int count, int row) {
+        long value = 0;
+        long result = 0;
+        for (int i = 0; i < count; i++) {
+            value += SegmentFormat.readSignedVarLong(in);
+            if (i == row) {
+                result = value;
+            }
+        }
+        return result;
+    }
+
+    // Flags first, then the due times of the flagged rows (as differences), then one priority byte per row
+    private void readDueAtAndPriority(ByteBuffer in, int count, int row, Task task) {
+        int flags = in.position();
+        in.position(flags + count);
+
+        long dueAt = 0;
+        for (int i = 0; i < count; i++) {
+            if (in.get(flags + i) == 1) {
+                dueAt += SegmentFormat.readSignedVarLong(in);
+                if (i == row) {
+                    task.setDueAt(SegmentFormat.fromMicros(dueAt));
+                }
+            }
+        }
+
+        task.setPriority(TaskPriority.values()[in.get(in.position() + row)]);
+    }
+
+    // Lengths first (length + 1, 0 = null), then the text of every row
+    private String readString(ByteBuffer in, int count, int row) {
+        int before = 0;
+        int total = 0;
+        int rowLength = 0;
+        for (int i = 0; i < count; i++) {
+            int length = (int) SegmentFormat.readVarLong(in);
+            if (i < row) {
+                before += Math.max(0, length - 1);
+            } else if (i == row) {
+                rowLength = length;
+            }
+            total += Math.max(0, length - 1);
+        }
+
+        String value = null;
+        if (rowLength > 0) {
+            value = new String(in.array(), in.position() + before, rowLength - 1, StandardCharsets.UTF_8);
+        }
+        // Move on to the next column
+        in.position(in.position() + total);
+        return value;
+    }
+
+    private byte[] decompress(int block) {
+        ByteBuffer compressed = data.slice((int) offsets[block], lengths[block]);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] buffer = new byte[Math.max(1024, lengths[block] * 4)];
+            int total = 0;
+            while (!inflater.finished()) {
+                if (total == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = inflater.inflate(buffer, total, buffer.length - total);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Archive segment block is truncated: " + file);
+                }
+                total += read;
+            }
+            return Arrays.copyOf(buffer, total);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Archive segment block is corrupt: " + file, e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.theawesomeengineer.taskmanager.archive;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes archived tasks to a new segment file (see SegmentFormat for the layout).
+ * Tasks must be sorted by ID, so the index can point straight to the block holding an ID.
+ */
+public class ArchiveSegmentWriter {
+
+    private final int blockSize;
+
+    public ArchiveSegmentWriter(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be at least 1");
+        }
+        this.blockSize = blockSize;
+    }
+
+    public void write(Path file, List<Task> tasks) throws IOException {
+        for (int i = 1; i < tasks.size(); i++) {
+            if (tasks.get(i).getId() <= tasks.get(i - 1).getId()) {
+                throw new IllegalArgumentException("Tasks must be sorted by ID with no duplicates");
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            out.writeInt(SegmentFormat.MAGIC);
+            out.writeInt(SegmentFormat.VERSION);
+            long offset = SegmentFormat.HEADER_SIZE;
+
+            // Write the blocks and remember where each one went
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            DataOutputStream indexOut = new DataOutputStream(index);
+            int blockCount = 0;
+            for (int start = 0; start < tasks.size(); start += blockSize) {
+                List<Task> block = tasks.subList(start, Math.min(start + blockSize, tasks.size()));
+                byte[] compressed = compress(encodeBlock(block));
+                out.write(compressed);
+
+                indexOut.writeLong(block.get(0).getId());
+                indexOut.writeLong(block.get(block.size() - 1).getId());
+                indexOut.writeLong(offset);
+                indexOut.writeInt(compressed.length);
+                indexOut.writeInt(block.size());
+
+                offset += compressed.length;
+                blockCount++;
+            }
+
+            out.write(index.toByteArray());
+            out.writeLong(offset);
+            out.writeInt(blockCount);
+            out.writeInt(tasks.size());
+            out.writeInt(SegmentFormat.MAGIC);
+            out.flush();
+
+            // Make sure the file is really on disk before the tasks are deleted from the database
+            channel.force(true);
+        }
+    }
+
+    // Lay the tasks out column by column - similar values next to each other compress much better
+    private byte[] encodeBlock(List<Task> block) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SegmentFormat.writeVarLong(out, block.size());
+
+        // IDs: the first one, then the gap to each next one
+        long previousId = 0;
+        for (Task task : block) {
+            SegmentFormat.writeVarLong(out, task.getId() - previousId);
+            previousId = task.getId();
+        }
+
+        writeTimes(out, block, true);
+        writeTimes(out, block, false);
+
+        for (Task task : block) {
+            out.write(Boolean.TRUE.equals(task.getCompleted()) ? 1 : 0);
+        }
+
+        List<byte[]> titles = new ArrayList<>();
+        List<byte[]> descriptions = new ArrayList<>();
+        for (Task task : block) {
+            titles.add(toBytes(task.getTitle()));
+            descriptions.add(toBytes(task.getDescription()));
+        }
+        writeStrings(out, titles);
+        writeStrings(out, descriptions);
+
+        // Due dates: a flag per row, then the due times that are set
+        for (Task task : block) {
+            out.write(task.getDueAt() != null ? 1 : 0);
+        }
+        long previousDueAt = 0;
+        for (Task task : block) {
+            if (task.getDueAt() != null) {
+                long micros = SegmentFormat.toMicros(task.getDueAt());
+                SegmentFormat.writeSignedVarLong(out, micros - previousDueAt);
+                previousDueAt = micros;
+            }
+        }
+
+        for (Task task : block) {
+            TaskPriority priority = task.getPriority() != null ? task.getPriority() : TaskPriority.MEDIUM;
+            out.write(priority.ordinal());
+        }
+
+        return out.toByteArray();
+    }
+
+    private void writeTimes(ByteArrayOutputStream out, List<Task> block, boolean createdAt) {
+        long previous = 0;
+        for (Task task : block) {
+            long micros = SegmentFormat.toMicros(createdAt ? task.getCreatedAt() : task.getUpdatedAt());
+            SegmentFormat.writeSignedVarLong(out, micros - previous);
+            previous = micros;
+        }
+    }
+
+    // All the lengths first (length + 1, so 0 can mean null), then all the text
+    private void writeStrings(ByteArrayOutputStream out, List<byte[]> values) {
+        for (byte[] value : values) {
+            SegmentFormat.writeVarLong(out, value == null ? 0 : value.length + 1);
+        }
+        for (byte[] value : values) {
+            if (value != null) {
+                out.writeBytes(value);
+            }
+        }
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] compress(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 64);
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                compressed.write(buffer, 0, length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
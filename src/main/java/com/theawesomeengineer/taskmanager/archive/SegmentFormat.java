@@ -0,0 +1,75 @@
+package com.theawesomeengineer.taskmanager.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Layout of an archive segment file, shared by ArchiveSegmentWriter and ArchiveSegment.
+ *
+ * File:   [header][block 0][block 1]...[index][footer]
+ * Header: MAGIC (int), VERSION (int)
+ * Block:  up to blockSize tasks, stored column by column and Deflate-compressed as one unit
+ * Index:  one entry per block - first ID, last ID, file offset, compressed length, row count
+ * Footer: index offset (long), block count (int), row count (int), MAGIC (int)
+ *
+ * Inside a block (before compression) the columns are:
+ * row count, IDs (first one, then gaps), created/updated times (microseconds, as differences),
+ * completed flags, titles and descriptions (all lengths first, then all the text),
+ * due dates (a has-due-date flag per row, then the due times of the rows that have one,
+ * as differences) and priorities (one byte per row).
+ */
+final class SegmentFormat {
+
+    static final int MAGIC = 0x54534547; // "TSEG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int INDEX_ENTRY_SIZE = 8 + 8 + 8 + 4 + 4;
+    static final int FOOTER_SIZE = 8 + 4 + 4 + 4;
+
+    private SegmentFormat() {
+    }
+
+    static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        long seconds = Math.floorDiv(micros, 1_000_000L);
+        int nanos = (int) Math.floorMod(micros, 1_000_000L) * 1_000;
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    // Variable-length longs: small numbers take 1 byte instead of 8
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    // Zigzag keeps small negative differences small too
+    static void writeSignedVarLong(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readSignedVarLong(ByteBuffer in) {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
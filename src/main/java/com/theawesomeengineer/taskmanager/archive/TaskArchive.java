@@ -0,0 +1,230 @@
+package com.theawesomeengineer.taskmanager.archive;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * The cold storage tier - completed tasks that TaskArchiver moved out of the tasks table.
+ * Tasks are kept in compressed segment files in one directory, and can still be read by ID.
+ * Segment files never change once written; deleting an archived task adds its ID to the
+ * "deleted IDs" file of the segment that holds it instead (see ArchiveSegment).
+ *
+ * If several app instances share the directory, each one picks up new files on its own, every
+ * rescan-interval-millis in the background. A lookup that misses rescans sooner, but only for IDs
+ * up to the highest archived one - anything above that is a normal "not found".
+ */
+@Component
+public class TaskArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchive.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final ArchiveSegmentWriter writer;
+    private final long rescanIntervalMillis;
+
+    // Newest segment first, so the latest copy of a task wins if it was archived twice
+    private volatile List<ArchiveSegment> segments = List.of();
+    private volatile long highestArchivedId = Long.MIN_VALUE;
+    private volatile long lastScanMillis;
+
+    public TaskArchive(@Value("${taskmanager.archive.directory:data/archive}") String directory,
+                       @Value("${taskmanager.archive.block-size:128}") int blockSize,
+                       @Value("${taskmanager.archive.rescan-interval-millis:5000}") long rescanIntervalMillis) {
+        this.directory = Paths.get(directory);
+        this.writer = new ArchiveSegmentWriter(blockSize);
+        this.rescanIntervalMillis = rescanIntervalMillis;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        rescan();
+        log.info("Task archive at {}: {} segments, {} archived tasks",
+            directory.toAbsolutePath(), segments.size(), getArchivedTaskCount());
+    }
+
+    /**
+     * Look up an archived task by ID.
+     */
+    public Optional<Task> find(Long id) {
+        Optional<Task> task = findInSegments(id);
+
+        // Maybe another instance archived it since we last looked. Not worth a look for IDs above
+        // the highest archived one (most misses are tasks that don't exist) - refresh() catches those.
+        if (task.isEmpty() && id != null && id <= highestArchivedId && rescanIfDue()) {
+            task = findInSegments(id);
+        }
+        return task;
+    }
+
+    /**
+     * Pick up segments and deleted IDs written by other instances.
+     */
+    @Scheduled(initialDelayString = "${taskmanager.archive.rescan-interval-millis:5000}",
+               fixedDelayString = "${taskmanager.archive.rescan-interval-millis:5000}")
+    public void refresh() {
+        rescanIfDue();
+    }
+
+    public boolean contains(Long id) {
+        return find(id).isPresent();
+    }
+
+    /**
+     * Write tasks to a new segment file. When this returns, the file is safely on disk.
+     */
+    public synchronized void append(List<Task> tasks) throws IOException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparing(Task::getId));
+
+        // Write to a temporary name first, so a half-written file is never picked up as a segment.
+        // Names start with the time, so sorting them by name puts the newest last.
+        String name = String.format("segment-%013d-%s", System.currentTimeMillis(),
+            UUID.randomUUID().toString().substring(0, 8));
+        Path temporaryFile = directory.resolve(name + ".tmp");
+        Path segmentFile = directory.resolve(name + SEGMENT_SUFFIX);
+        try {
+            writer.write(temporaryFile, sorted);
+            Files.move(temporaryFile, segmentFile, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+
+        List<ArchiveSegment> updated = new ArrayList<>();
+        updated.add(new ArchiveSegment(segmentFile));
+        updated.addAll(segments);
+        setSegments(updated);
+    }
+
+    /**
+     * Mark an archived task as deleted. Its data stays in the segment file but can't be read any more.
+     */
+    public synchronized void markDeleted(Long id) {
+        // Every copy, in case it was archived more than once
+        for (ArchiveSegment segment : segments) {
+            if (segment.mightContain(id) && !segment.isDeleted(id) && segment.find(id).isPresent()) {
+                try {
+                    segment.markDeleted(id);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not record deleted archived task " + id, e);
+                }
+            }
+        }
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getArchivedTaskCount() {
+        long count = 0;
+        for (ArchiveSegment segment : segments) {
+            count += segment.getRowCount();
+        }
+        return count;
+    }
+
+    private Optional<Task> findInSegments(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        for (ArchiveSegment segment : segments) {
+            if (segment.mightContain(id)) {
+                if (segment.isDeleted(id)) {
+                    return Optional.empty();
+                }
+                Optional<Task> task = segment.find(id);
+                if (task.isPresent()) {
+                    return task;
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Rescan unless another thread just did. Returns true if it rescanned.
+    private synchronized boolean rescanIfDue() {
+        if (System.currentTimeMillis() - lastScanMillis < rescanIntervalMillis) {
+            return false;
+        }
+        rescan();
+        return true;
+    }
+
+    private void setSegments(List<ArchiveSegment> updated) {
+        long highest = Long.MIN_VALUE;
+        for (ArchiveSegment segment : updated) {
+            highest = Math.max(highest, segment.getLastId());
+        }
+        segments = List.copyOf(updated);
+        highestArchivedId = highest;
+    }
+
+    // Open any segment files we don't know about yet, and read new deleted IDs
+    private synchronized void rescan() {
+        lastScanMillis = System.currentTimeMillis();
+        try {
+            Set<Path> known = new HashSet<>();
+            for (ArchiveSegment segment : segments) {
+                known.add(segment.getFile().getFileName());
+            }
+
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing
+                    .filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed())
+                    .toList();
+            }
+
+            if (!known.containsAll(files.stream().map(Path::getFileName).toList())) {
+                List<ArchiveSegment> opened = new ArrayList<>();
+                for (Path file : files) {
+                    ArchiveSegment existing = findSegment(file.getFileName());
+                    opened.add(existing != null ? existing : new ArchiveSegment(file));
+                }
+                setSegments(opened);
+            }
+
+            for (ArchiveSegment segment : segments) {
+                segment.readDeletedIds();
+            }
+        } catch (IOException e) {
+            log.warn("Could not scan task archive {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private ArchiveSegment findSegment(Path fileName) {
+        for (ArchiveSegment segment : segments) {
+            if (segment.getFile().getFileName().equals(fileName)) {
+                return segment;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.theawesomeengineer.taskmanager.archive;
+
+import com.theawesomeengineer.taskmanager.cache.CacheInvalidationBus;
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Background job - moves tasks that were completed a while ago out of the tasks table
+ * and into the TaskArchive, so the table only holds tasks people are still working on.
+ *
+ * For each batch: write the tasks to a segment file, then delete them from the table.
+ * If the app stops in between, the next run archives the same tasks again, which is harmless
+ * (the newest copy is the one that gets read).
+ */
+@Component
+@ConditionalOnProperty(name = "taskmanager.archive.enabled", havingValue = "true")
+public class TaskArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiver.class);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskArchive taskArchive;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    // Completed tasks not touched for this many days get archived
+    @Value("${taskmanager.archive.completed-older-than-days:30}")
+    private int completedOlderThanDays;
+
+    @Value("${taskmanager.archive.batch-size:1000}")
+    private int batchSize;
+
+    // Stop after this many batches, so one run can't keep the database busy for too long
+    @Value("${taskmanager.archive.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(initialDelayString = "${taskmanager.archive.initial-delay-millis:60000}",
+               fixedDelayString = "${taskmanager.archive.interval-millis:3600000}")
+    public void scheduledRun() {
+        try {
+            int archived = archiveCompletedTasks();
+            if (archived > 0) {
+                log.info("Archived {} completed tasks ({} archived in total)",
+                    archived, taskArchive.getArchivedTaskCount());
+            }
+        } catch (Exception e) {
+            log.warn("Archiving completed tasks failed, will try again next run", e);
+        }
+    }
+
+    /**
+     * Archive every completed task last updated before the cutoff. Returns how many were archived.
+     */
+    public int archiveCompletedTasks() throws IOException {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(completedOlderThanDays);
+        int archived = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            // Always the first page - the previous batch has been deleted by now
+            List<Task> tasks = taskRepository.findByCompletedTrueAndUpdatedAtBefore(
+                cutoff, PageRequest.of(0, batchSize, Sort.by("id")));
+            if (tasks.isEmpty()) {
+                break;
+            }
+
+            // 1. Safely on disk first
+            taskArchive.append(tasks);
+
+            // 2. Then out of the table. A task that was changed in the meantime no longer matches
+            //    and stays in the table (which is checked before the archive, so it still wins).
+            List<Long> ids = new ArrayList<>();
+            for (Task task : tasks) {
+                ids.add(task.getId());
+            }
+            taskRepository.deleteArchived(ids, cutoff);
+
+            // 3. Other instances may still have these tasks cached
+            for (Long id : ids) {
+                cacheInvalidationBus.publish(Task.class.getName(), id);
+            }
+
+            archived += tasks.size();
+            if (tasks.size() < batchSize) {
+                break;
+            }
+        }
+        return archived;
+    }
+}
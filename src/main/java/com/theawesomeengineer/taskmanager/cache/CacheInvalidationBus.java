@@ -0,0 +1,60 @@
+package com.theawesomeengineer.taskmanager.cache;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tells other app instances which cached entities changed here, and passes on
+ * what they tell us. Messages we sent ourselves are ignored when they come back.
+ */
+public class CacheInvalidationBus implements AutoCloseable {
+
+    // Random ID for this instance
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final InvalidationTransport transport;
+    private final List<Consumer<InvalidationMessage>> listeners = new CopyOnWriteArrayList<>();
+
+    public CacheInvalidationBus(InvalidationTransport transport) {
+        this.transport = transport;
+        transport.start(this::receive);
+    }
+
+    /**
+     * Tell the other instances that an entity changed.
+     */
+    public void publish(String entityName, Object entityId) {
+        transport.send(new InvalidationMessage(nodeId, entityName, String.valueOf(entityId)).encode());
+    }
+
+    /**
+     * Register code that runs when another instance reports a change.
+     */
+    public void addListener(Consumer<InvalidationMessage> listener) {
+        listeners.add(listener);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void close() {
+        transport.close();
+    }
+
+    private void receive(String payload) {
+        InvalidationMessage message = InvalidationMessage.decode(payload);
+
+        // Ignore garbage and our own messages
+        if (message == null || nodeId.equals(message.getOriginNodeId())) {
+            return;
+        }
+
+        for (Consumer<InvalidationMessage> listener : listeners) {
+            listener.accept(message);
+        }
+    }
+}
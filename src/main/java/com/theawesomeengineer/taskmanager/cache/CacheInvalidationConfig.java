@@ -0,0 +1,52 @@
+package com.theawesomeengineer.taskmanager.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the cache invalidation bus with the transport chosen in application.properties:
+ * - loopback: only this JVM (default, fine for a single instance)
+ * - udp: send to the instances listed in taskmanager.cache.invalidation.udp.peers
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheInvalidationBus cacheInvalidationBus(
+            @Value("${taskmanager.cache.invalidation.transport:loopback}") String transport,
+            @Value("${taskmanager.cache.invalidation.udp.port:7600}") int udpPort,
+            @Value("${taskmanager.cache.invalidation.udp.peers:}") String udpPeers) throws SocketException {
+
+        if ("udp".equals(transport)) {
+            return new CacheInvalidationBus(new UdpInvalidationTransport(udpPort, parsePeers(udpPeers)));
+        }
+        if ("loopback".equals(transport)) {
+            return new CacheInvalidationBus(new LoopbackInvalidationTransport("default"));
+        }
+        throw new IllegalArgumentException("Unknown taskmanager.cache.invalidation.transport: " + transport);
+    }
+
+    // Parse "host1:7600,host2:7600" into addresses
+    static List<InetSocketAddress> parsePeers(String value) {
+        List<InetSocketAddress> peers = new ArrayList<>();
+        for (String peer : value.split(",")) {
+            String trimmed = peer.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int colon = trimmed.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Peer must look like host:port, got " + trimmed);
+            }
+            peers.add(new InetSocketAddress(trimmed.substring(0, colon),
+                Integer.parseInt(trimmed.substring(colon + 1))));
+        }
+        return peers;
+    }
+}
@@ -0,0 +1,104 @@
+package com.theawesomeengineer.taskmanager.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the Hibernate second-level cache in sync between app instances.
+ * - After a transaction commits here, publish the changed entity IDs on the bus
+ * - When another instance publishes, drop those entities (and cached query results) from our cache
+ * Publishing only after commit means a peer can't reload the old row before the change is visible.
+ */
+@Component
+public class HibernateCacheInvalidator implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private SessionFactoryImplementor sessionFactory;
+
+    // Hook into Hibernate's events and into the bus once everything is created
+    @PostConstruct
+    public void register() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+        EventListenerRegistry registry =
+            sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+
+        cacheInvalidationBus.addListener(this::evict);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // A new row doesn't make any cached entity stale, but it does change cached query results
+        cacheInvalidationBus.publish(event.getPersister().getEntityName(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        cacheInvalidationBus.publish(event.getPersister().getEntityName(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        cacheInvalidationBus.publish(event.getPersister().getEntityName(), event.getId());
+    }
+
+    // Only entities that live in the second-level cache need to be announced
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Rolled back - nothing changed, nothing to announce
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Rolled back - nothing changed, nothing to announce
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Rolled back - nothing changed, nothing to announce
+    }
+
+    // Another instance changed an entity - forget our copy
+    private void evict(InvalidationMessage message) {
+        org.hibernate.Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(message.getEntityName(), parseId(message.getEntityId()));
+
+        // Query results are cached per instance and peers don't see our table update timestamps
+        cache.evictQueryRegions();
+    }
+
+    // Task IDs are Longs - keep anything else as a String
+    private Object parseId(String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return id;
+        }
+    }
+}
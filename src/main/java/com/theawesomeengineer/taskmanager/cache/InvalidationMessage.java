@@ -0,0 +1,62 @@
+package com.theawesomeengineer.taskmanager.cache;
+
+/**
+ * "Entity X with ID Y changed on node Z - drop it from your cache".
+ * Sent between app instances as a small text payload: v1|nodeId|entityName|id
+ */
+public class InvalidationMessage {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    // Which instance sent the message, so it can ignore its own messages
+    private final String originNodeId;
+
+    // Hibernate entity name, e.g. com.theawesomeengineer.taskmanager.entity.Task
+    private final String entityName;
+
+    // ID of the entity that changed
+    private final String entityId;
+
+    public InvalidationMessage(String originNodeId, String entityName, String entityId) {
+        this.originNodeId = originNodeId;
+        this.entityName = entityName;
+        this.entityId = entityId;
+    }
+
+    public String encode() {
+        return VERSION + SEPARATOR + originNodeId + SEPARATOR + entityName + SEPARATOR + entityId;
+    }
+
+    /**
+     * Parse a message. Returns null for anything we don't understand
+     * (messages from a newer version, garbage on the port, ...).
+     */
+    public static InvalidationMessage decode(String payload) {
+        if (payload == null) {
+            return null;
+        }
+        String[] parts = payload.split("\\|", -1);
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            return null;
+        }
+        return new InvalidationMessage(parts[1], parts[2], parts[3]);
+    }
+
+    public String getOriginNodeId() {
+        return originNodeId;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,27 @@
+package com.theawesomeengineer.taskmanager.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * How invalidation messages travel between app instances.
+ * Pick one with taskmanager.cache.invalidation.transport (loopback or udp).
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    /**
+     * Start receiving. Every payload sent by a peer is handed to the receiver.
+     */
+    void start(Consumer<String> receiver);
+
+    /**
+     * Send a payload to every peer. Best effort - a lost message only means a peer
+     * keeps a stale entry until it expires from its cache.
+     */
+    void send(String payload);
+
+    /**
+     * Stop receiving and release the socket (if any). Safe to call more than once.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,50 @@
+package com.theawesomeengineer.taskmanager.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport that only reaches other transports in the same JVM with the same group name.
+ * It's the default for a single instance (nothing to notify) and lets tests run
+ * several "nodes" in one process.
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    // Receivers of every transport in the JVM, by group name
+    private static final Map<String, List<Consumer<String>>> GROUPS = new ConcurrentHashMap<>();
+
+    private final String group;
+    private Consumer<String> receiver;
+
+    public LoopbackInvalidationTransport(String group) {
+        this.group = group;
+    }
+
+    @Override
+    public void start(Consumer<String> receiver) {
+        this.receiver = receiver;
+        GROUPS.computeIfAbsent(group, name -> new CopyOnWriteArrayList<>()).add(receiver);
+    }
+
+    @Override
+    public void send(String payload) {
+        List<Consumer<String>> receivers = GROUPS.get(group);
+        if (receivers == null) {
+            return;
+        }
+        for (Consumer<String> member : receivers) {
+            member.accept(payload);
+        }
+    }
+
+    @Override
+    public void close() {
+        List<Consumer<String>> receivers = GROUPS.get(group);
+        if (receivers != null && receiver != null) {
+            receivers.remove(receiver);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.theawesomeengineer.taskmanager.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Transport that sends each message as one UDP datagram to a fixed list of peers.
+ * Cheap and has no broker to run. Messages can get lost, which is why cached tasks
+ * also expire after a while (see caffeine.conf).
+ */
+public class UdpInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(UdpInvalidationTransport.class);
+
+    // Messages are tiny, this is plenty
+    private static final int MAX_PAYLOAD_BYTES = 1024;
+
+    private final DatagramSocket socket;
+    private final List<InetSocketAddress> peers;
+    private Thread receiverThread;
+
+    public UdpInvalidationTransport(int port, List<InetSocketAddress> peers) throws SocketException {
+        this.socket = new DatagramSocket(port);
+        this.peers = peers;
+    }
+
+    @Override
+    public void start(Consumer<String> receiver) {
+        receiverThread = new Thread(() -> receiveLoop(receiver), "cache-invalidation-udp");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    @Override
+    public void send(String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(bytes, bytes.length, peer));
+            } catch (IOException e) {
+                log.warn("Could not send cache invalidation to {}: {}", peer, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    private void receiveLoop(Consumer<String> receiver) {
+        byte[] buffer = new byte[MAX_PAYLOAD_BYTES];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                receiver.accept(new String(packet.getData(), packet.getOffset(), packet.getLength(),
+                    StandardCharsets.UTF_8));
+            } catch (SocketException e) {
+                // Socket was closed - we are shutting down
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not handle cache invalidation message: {}", e.getMessage());
+            }
+        }
+    }
+}
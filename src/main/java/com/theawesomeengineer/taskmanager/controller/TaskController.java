@@ -1,19 +1,30 @@
 package com.theawesomeengineer.taskmanager.controller;
 
 import com.theawesomeengineer.taskmanager.api.TasksApi;
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
+import com.theawesomeengineer.taskmanager.history.RevisionRecord;
 import com.theawesomeengineer.taskmanager.mapper.TaskMapper;
 import com.theawesomeengineer.taskmanager.model.Task;
+import com.theawesomeengineer.taskmanager.model.TaskBatchGetRequest;
+import com.theawesomeengineer.taskmanager.model.TaskBatchGetResponse;
+import com.theawesomeengineer.taskmanager.model.TaskBatchItem;
+import com.theawesomeengineer.taskmanager.model.TaskPatch;
 import com.theawesomeengineer.taskmanager.model.TaskRequest;
+import com.theawesomeengineer.taskmanager.model.TaskRevision;
+import com.theawesomeengineer.taskmanager.service.IdempotencyService;
 import com.theawesomeengineer.taskmanager.service.TaskService;
 import jakarta.validation.Valid;
+import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller class - handles HTTP requests for tasks
@@ -31,6 +42,10 @@ public class TaskController implements TasksApi {
     @Autowired
     private TaskMapper taskMapper;
 
+    // Makes POST and PUT safe to retry with an Idempotency-Key header
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     // GET /tasks - get all tasks
     @Override
     public ResponseEntity<List<Task>> getAllTasks() {
@@ -61,13 +76,81 @@ public class TaskController implements TasksApi {
         return ResponseEntity.ok(apiTask);
     }
 
+    // POST /tasks:batchGet - get many tasks at once, one item per ID in request order
+    @Override
+    public ResponseEntity<TaskBatchGetResponse> batchGetTasks(@Valid @RequestBody TaskBatchGetRequest taskBatchGetRequest) {
+        List<Long> ids = taskBatchGetRequest.getIds();
+        List<Optional<com.theawesomeengineer.taskmanager.entity.Task>> taskEntities = taskService.getTasksByIds(ids);
+
+        // A missing task only marks its own item, the others are still returned
+        List<TaskBatchItem> items = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            TaskBatchItem item = new TaskBatchItem();
+            item.setId(ids.get(i));
+            if (taskEntities.get(i).isPresent()) {
+                item.setFound(true);
+                item.setTask(taskMapper.toModel(taskEntities.get(i).get()));
+            } else {
+                item.setFound(false);
+                item.setError("Task with ID " + ids.get(i) + " not found");
+            }
+            items.add(item);
+        }
+
+        TaskBatchGetResponse response = new TaskBatchGetResponse();
+        response.setItems(items);
+
+        // Return with 200 OK status, even if some tasks were not found
+        return ResponseEntity.ok(response);
+    }
+
+    // GET /tasks/due-soon - open tasks due soon (and overdue ones), most important first
+    @Override
+    public ResponseEntity<List<Task>> getDueSoonTasks(Integer withinMinutes, Integer limit) {
+        List<com.theawesomeengineer.taskmanager.entity.Task> taskEntities =
+            taskService.getDueSoonTasks(withinMinutes, limit);
+
+        // Convert each entity to API model
+        List<Task> apiTasks = new ArrayList<>();
+        for (com.theawesomeengineer.taskmanager.entity.Task entity : taskEntities) {
+            apiTasks.add(taskMapper.toModel(entity));
+        }
+
+        // Return with 200 OK status
+        return ResponseEntity.ok(apiTasks);
+    }
+
+    // GET /tasks/{id}/history - every change to a task, oldest first
+    @Override
+    public ResponseEntity<List<TaskRevision>> getTaskHistory(Long id) {
+        List<RevisionRecord> history = taskService.getTaskHistory(id);
+
+        // Convert each revision to API model, numbering them from 1
+        List<TaskRevision> apiRevisions = new ArrayList<>();
+        for (int i = 0; i < history.size(); i++) {
+            apiRevisions.add(taskMapper.toModel(history.get(i), i + 1));
+        }
+
+        // Return with 200 OK status
+        return ResponseEntity.ok(apiRevisions);
+    }
+
     // POST /tasks - create a new task
     @Override
-    public ResponseEntity<Task> createTask(@Valid @RequestBody TaskRequest taskRequest) {
+    public ResponseEntity<Task> createTask(@Valid @RequestBody TaskRequest taskRequest, String idempotencyKey) {
+        // A retry with the same Idempotency-Key gets the first response back instead of a duplicate task
+        String fingerprint = idempotencyService.fingerprint("POST", "/tasks", taskRequest);
+        return idempotencyService.execute(idempotencyKey, fingerprint, Task.class,
+            () -> doCreateTask(taskRequest));
+    }
+
+    private ResponseEntity<Task> doCreateTask(TaskRequest taskRequest) {
         // Get data from request
         String title = taskRequest.getTitle();
         String description = taskRequest.getDescription();
         Boolean completed = taskRequest.getCompleted();
+        LocalDateTime dueAt = taskMapper.toLocalDateTime(taskRequest.getDueAt());
+        TaskPriority priority = taskMapper.toEntity(taskRequest.getPriority());
 
         // Default completed to false if not provided
         if (completed == null) {
@@ -76,7 +159,7 @@ public class TaskController implements TasksApi {
 
         // Create task in database
         com.theawesomeengineer.taskmanager.entity.Task createdEntity =
-            taskService.createTask(title, description, completed);
+            taskService.createTask(title, description, completed, dueAt, priority);
 
         // Convert to API model
         Task apiTask = taskMapper.toModel(createdEntity);
@@ -87,11 +170,20 @@ public class TaskController implements TasksApi {
 
     // PUT /tasks/{id} - update an existing task
     @Override
-    public ResponseEntity<Task> updateTask(Long id, @Valid @RequestBody TaskRequest taskRequest) {
+    public ResponseEntity<Task> updateTask(Long id, @Valid @RequestBody TaskRequest taskRequest, String idempotencyKey) {
+        // A retry with the same Idempotency-Key gets the first response back without updating again
+        String fingerprint = idempotencyService.fingerprint("PUT", "/tasks/" + id, taskRequest);
+        return idempotencyService.execute(idempotencyKey, fingerprint, Task.class,
+            () -> doUpdateTask(id, taskRequest));
+    }
+
+    private ResponseEntity<Task> doUpdateTask(Long id, TaskRequest taskRequest) {
         // Get data from request
         String title = taskRequest.getTitle();
         String description = taskRequest.getDescription();
         Boolean completed = taskRequest.getCompleted();
+        LocalDateTime dueAt = taskMapper.toLocalDateTime(taskRequest.getDueAt());
+        TaskPriority priority = taskMapper.toEntity(taskRequest.getPriority());
 
         // Default completed to false if not provided
         if (completed == null) {
@@ -100,7 +192,7 @@ public class TaskController implements TasksApi {
 
         // Update task in database
         com.theawesomeengineer.taskmanager.entity.Task updatedEntity =
-            taskService.updateTask(id, title, description, completed);
+            taskService.updateTask(id, title, description, completed, dueAt, priority);
 
         // Convert to API model
         Task apiTask = taskMapper.toModel(updatedEntity);
@@ -109,6 +201,27 @@ public class TaskController implements TasksApi {
         return ResponseEntity.ok(apiTask);
     }
 
+    // PATCH /tasks/{id} - change only the fields in the request body
+    @Override
+    public ResponseEntity<Task> patchTask(Long id, @Valid @RequestBody TaskPatch taskPatch) {
+        // Fields that weren't sent are null and stay unchanged.
+        // dueAt is the exception: "not sent" (undefined) and "sent as null" (remove the due date) are different.
+        JsonNullable<LocalDateTime> dueAt = JsonNullable.undefined();
+        if (taskPatch.getDueAt() != null && taskPatch.getDueAt().isPresent()) {
+            dueAt = JsonNullable.of(taskMapper.toLocalDateTime(taskPatch.getDueAt().get()));
+        }
+
+        com.theawesomeengineer.taskmanager.entity.Task patchedEntity = taskService.patchTask(
+            id, taskPatch.getTitle(), taskPatch.getDescription(), taskPatch.getCompleted(),
+            dueAt, taskMapper.toEntity(taskPatch.getPriority()));
+
+        // Convert to API model
+        Task apiTask = taskMapper.toModel(patchedEntity);
+
+        // Return with 200 OK status
+        return ResponseEntity.ok(apiTask);
+    }
+
     // DELETE /tasks/{id} - delete a task
     @Override
     public ResponseEntity<Void> deleteTask(Long id) {
@@ -0,0 +1,78 @@
+package com.theawesomeengineer.taskmanager.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * IdempotencyKey Entity - one row per Idempotency-Key sent by a client
+ * Only used when taskmanager.idempotency.store=table, so several app instances share the same keys
+ */
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyKey {
+
+    // The key sent by the client in the Idempotency-Key header
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    // Hash of the request that first used this key
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    // HTTP status of the stored response - null while the request is still running
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    // JSON body of the stored response - null while the request is still running
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    // When this key can be forgotten
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Empty constructor - required by JPA
+    public IdempotencyKey() {
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(Integer statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -3,22 +3,42 @@ package com.theawesomeengineer.taskmanager.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.domain.Persistable;
 import java.time.LocalDateTime;
 
 /**
  * Task Entity - This represents a task in the database
  * @Entity tells Spring this is a database table
  * Each field below becomes a column in the database
+ * @Cacheable keeps loaded tasks in Hibernate's second-level cache, so repeated reads skip the database
+ * @DynamicUpdate makes UPDATE statements set only the columns that changed, not every column
  */
 @Entity
-@Table(name = "tasks")
-public class Task {
-
-    // Primary key - auto-generated ID
+@Table(name = "tasks", indexes = {
+    // Lets TaskArchiver find old completed tasks without scanning the whole table
+    @Index(name = "idx_tasks_completed_updated_at", columnList = "completed, updated_at"),
+    // Lets "open tasks due soon" and the reminder rebuild read only the due range
+    @Index(name = "idx_tasks_completed_due_at", columnList = "completed, due_at")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tasks")
+@DynamicUpdate
+public class Task implements Persistable<Long> {
+
+    // Primary key - assigned by TaskIdGenerator when the task is first saved.
+    // The ID also decides which shard the task is stored on (see ShardLayout).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // True until the task has been saved or loaded, so Spring Data knows to INSERT instead of UPDATE
+    // (the ID is already set before the first save, so it can't tell from the ID alone)
+    @Transient
+    private boolean isNew = true;
+
     // Task title - cannot be empty (validation)
     @NotBlank(message = "Title is required")
     @Size(max = 255, message = "Title cannot exceed 255 characters")
@@ -35,6 +55,17 @@ public class Task {
     @Column(nullable = false)
     private Boolean completed = false;
 
+    // When is the task due? (UTC, optional)
+    @Column(name = "due_at")
+    private LocalDateTime dueAt;
+
+    // How important is the task? Default is MEDIUM
+    // (existing rows get the column default 1 = MEDIUM when the column is added)
+    @Enumerated(EnumType.ORDINAL)
+    @ColumnDefault("1")
+    @Column(nullable = false)
+    private TaskPriority priority = TaskPriority.MEDIUM;
+
     // When was this task created?
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -44,10 +75,13 @@ public class Task {
     private LocalDateTime updatedAt;
 
     // This runs automatically before saving a new task
+    // (a task coming back from the archive keeps its original createdAt)
     @PrePersist
     public void beforeSave() {
         LocalDateTime now = LocalDateTime.now();
-        this.createdAt = now;
+        if (this.createdAt == null) {
+            this.createdAt = now;
+        }
         this.updatedAt = now;
     }
 
@@ -57,6 +91,13 @@ public class Task {
         this.updatedAt = LocalDateTime.now();
     }
 
+    // This runs after the task is inserted or loaded from the database
+    @PostPersist
+    @PostLoad
+    public void markNotNew() {
+        this.isNew = false;
+    }
+
     // Empty constructor - required by JPA
     public Task() {
     }
@@ -74,10 +115,16 @@ public class Task {
 
     // Getters and Setters - these let us read and write the fields
 
+    @Override
     public Long getId() {
         return id;
     }
 
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -106,6 +153,22 @@ public class Task {
         this.completed = completed;
     }
 
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public TaskPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(TaskPriority priority) {
+        this.priority = priority;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,13 @@
+package com.theawesomeengineer.taskmanager.entity;
+
+/**
+ * How important a task is, from least to most important.
+ * Stored as its position in this list (LOW = 0, ..., URGENT = 3) so the database can sort by it,
+ * so don't reorder the values.
+ */
+public enum TaskPriority {
+    LOW,
+    MEDIUM,
+    HIGH,
+    URGENT
+}
@@ -1,12 +1,17 @@
 package com.theawesomeengineer.taskmanager.exception;
 
 import com.theawesomeengineer.taskmanager.model.Error;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -33,6 +38,47 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    // Handle an Idempotency-Key reused for a different request - returns 422
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<Error> handleIdempotencyKeyConflict(IdempotencyKeyConflictException exception) {
+        // Create error response
+        Error error = new Error();
+        error.setMessage(exception.getMessage());
+        error.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        error.setDetails("Use a new Idempotency-Key for a different request");
+
+        // Return 422 UNPROCESSABLE ENTITY
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(error);
+    }
+
+    // Handle a duplicate request whose original is still running - returns 409
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<Error> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException exception) {
+        // Create error response
+        Error error = new Error();
+        error.setMessage(exception.getMessage());
+        error.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        error.setDetails("Retry the request after the original one has finished");
+
+        // Return 409 CONFLICT
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    // Handle too many Idempotency-Keys still running at once - returns 503
+    @ExceptionHandler(IdempotencyStoreFullException.class)
+    public ResponseEntity<Error> handleIdempotencyStoreFull(IdempotencyStoreFullException exception) {
+        // Create error response
+        Error error = new Error();
+        error.setMessage(exception.getMessage());
+        error.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        error.setDetails("The request was not run - it is safe to retry with the same Idempotency-Key");
+
+        // Return 503 SERVICE UNAVAILABLE, and tell the client when to retry
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(error);
+    }
+
     // Handle validation errors (like missing required fields) - returns 400
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Error> handleValidationError(MethodArgumentNotValidException exception) {
@@ -58,6 +104,45 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    // Handle invalid query parameters (like limit=0 on /tasks/due-soon) - returns 400
+    @ExceptionHandler({ConstraintViolationException.class, HandlerMethodValidationException.class})
+    public ResponseEntity<Error> handleParameterValidationError(Exception exception) {
+        // Create error response
+        Error error = new Error();
+        error.setMessage("Validation failed");
+        error.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        error.setDetails(exception.getMessage());
+
+        // Return 400 BAD REQUEST
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    // Handle a request body that isn't valid JSON, or has a wrong value (like an unknown priority) - returns 400
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Error> handleUnreadableBody(HttpMessageNotReadableException exception) {
+        // Create error response
+        Error error = new Error();
+        error.setMessage("Request body could not be read");
+        error.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        error.setDetails(exception.getMostSpecificCause().getMessage());
+
+        // Return 400 BAD REQUEST
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    // Handle a request body in the wrong format (like application/json sent to PATCH) - returns 415
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<Error> handleUnsupportedMediaType(HttpMediaTypeNotSupportedException exception) {
+        // Create error response
+        Error error = new Error();
+        error.setMessage(exception.getMessage());
+        error.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
+        error.setDetails("Supported content types: " + exception.getSupportedMediaTypes());
+
+        // Return 415 UNSUPPORTED MEDIA TYPE
+        return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).body(error);
+    }
+
     // Handle all other unexpected errors - returns 500
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Error> handleGenericError(Exception exception) {
@@ -0,0 +1,12 @@
+package com.theawesomeengineer.taskmanager.exception;
+
+/**
+ * Thrown when an Idempotency-Key is reused with a different request body.
+ * This will be caught by the global exception handler and returned as 422.
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
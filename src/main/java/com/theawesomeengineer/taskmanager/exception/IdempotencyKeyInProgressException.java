@@ -0,0 +1,12 @@
+package com.theawesomeengineer.taskmanager.exception;
+
+/**
+ * Thrown when a request with the same Idempotency-Key is still running and did not finish in time.
+ * This will be caught by the global exception handler and returned as 409.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
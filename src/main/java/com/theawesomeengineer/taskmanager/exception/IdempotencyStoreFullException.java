@@ -0,0 +1,13 @@
+package com.theawesomeengineer.taskmanager.exception;
+
+/**
+ * Thrown when the in-memory idempotency store is full of requests that are still running,
+ * so a new Idempotency-Key can't be remembered safely.
+ * This will be caught by the global exception handler and returned as 503.
+ */
+public class IdempotencyStoreFullException extends RuntimeException {
+
+    public IdempotencyStoreFullException(String message) {
+        super(message);
+    }
+}
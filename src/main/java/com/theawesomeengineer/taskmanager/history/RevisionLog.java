@@ -0,0 +1,770 @@
+package com.theawesomeengineer.taskmanager.history;
+
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Append-only storage for task revisions.
+ *
+ * Revisions are written in blocks to log files in one directory. A file is never changed,
+ * only added to, and a new file is started when it gets too big (or the app restarts).
+ * Each block is:
+ *   BLOCK_MAGIC,
+ *   row count, compressed length, CRC of the compressed bytes (ints),
+ *   the task ID of every row (longs, not compressed),
+ *   the rows themselves, Deflate-compressed.
+ *
+ * A file that is still being written has an in-memory index (task ID -> blocks), built from
+ * the uncompressed task IDs in the block headers. When the file is finished ("sealed") that
+ * index is written next to it as a .idx file:
+ *   INDEX_MAGIC, entry count, fence count (ints), file size covered, file size when sealed (longs),
+ *   the task ID of every FENCE_INTERVAL-th entry (longs),
+ *   every (task ID, block offset, block length) entry, sorted by task ID.
+ * Reading a task from a sealed file is a binary search of the fences (kept in memory for the
+ * most recently used files) and one read of at most a few fence intervals of entries, then only
+ * the blocks of that task are read and decompressed.
+ *
+ * A writer seals its file when it starts a new one or closes. A file nobody has written to for
+ * SEAL_AFTER_IDLE_MILLIS (e.g. the writer crashed) is sealed by whichever instance notices first.
+ *
+ * read() never scans the directory: files and blocks written by other instances are picked up
+ * by refresh(), which the caller runs in the background.
+ */
+public class RevisionLog {
+
+    private static final Logger log = LoggerFactory.getLogger(RevisionLog.class);
+
+    private static final int FILE_MAGIC = 0x54524556; // "TREV"
+    private static final int BLOCK_MAGIC = 0x424C4B31; // "BLK1"
+    private static final int INDEX_MAGIC = 0x54494458; // "TIDX"
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int BLOCK_HEADER_SIZE = 16;
+    private static final int INDEX_HEADER_SIZE = 28;
+    private static final int INDEX_ENTRY_SIZE = 20;
+    private static final int FENCE_INTERVAL = 128;
+    private static final long SEAL_AFTER_IDLE_MILLIS = 10 * 60 * 1000;
+    private static final String FILE_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int DEFAULT_CACHED_INDEXES = 64;
+
+    // Where a block is in its file: start of the block, and its total size
+    private record BlockRef(long offset, int length) {
+    }
+
+    // Called for every complete block found while scanning a file
+    private interface BlockVisitor {
+        void visit(BlockRef block, long[] taskIds);
+    }
+
+    // The in-memory index of a file that is still being written: task ID -> its blocks, in file order
+    private static class FileIndex {
+        private final Map<Long, List<BlockRef>> blocks = new HashMap<>();
+        // How far the file has been indexed (another instance may still be adding to it)
+        private long indexedUpTo;
+        // The size of the file when it was last scanned - bigger than indexedUpTo if a block was cut off
+        private long scannedSize;
+
+        private void add(BlockRef block, long[] taskIds) {
+            for (long taskId : taskIds) {
+                List<BlockRef> taskBlocks = blocks.computeIfAbsent(taskId, id -> new ArrayList<>());
+                // A task can have several rows in one block - list the block once
+                if (taskBlocks.isEmpty() || taskBlocks.get(taskBlocks.size() - 1) != block) {
+                    taskBlocks.add(block);
+                }
+            }
+        }
+    }
+
+    // The part of a .idx file kept in memory: its header, its fences and an open channel to the entries
+    private static class SealedIndex {
+        private final FileChannel channel;
+        private final int entryCount;
+        private final long[] fences;
+
+        private SealedIndex(FileChannel channel, int entryCount, long[] fences) {
+            this.channel = channel;
+            this.entryCount = entryCount;
+            this.fences = fences;
+        }
+
+        private List<BlockRef> blocksOf(long taskId) throws IOException {
+            // Entries before the last fence below the task ID can't be the task's
+            int low = 0;
+            int high = fences.length - 1;
+            int start = 0;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (fences[middle] < taskId) {
+                    start = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+
+            List<BlockRef> blocks = new ArrayList<>();
+            long entriesStart = INDEX_HEADER_SIZE + (long) fences.length * Long.BYTES;
+            int entry = start * FENCE_INTERVAL;
+            while (entry < entryCount) {
+                int count = Math.min(FENCE_INTERVAL, entryCount - entry);
+                ByteBuffer entries = readFully(channel, entriesStart + (long) entry * INDEX_ENTRY_SIZE,
+                    count * INDEX_ENTRY_SIZE);
+                for (int i = 0; i < count; i++) {
+                    long id = entries.getLong();
+                    long offset = entries.getLong();
+                    int length = entries.getInt();
+                    if (id > taskId) {
+                        return blocks;
+                    }
+                    if (id == taskId) {
+                        blocks.add(new BlockRef(offset, length));
+                    }
+                }
+                entry += count;
+            }
+            return blocks;
+        }
+    }
+
+    private final Path directory;
+    private final String writerId;
+    private final long maxFileBytes;
+    private final long rescanIntervalMillis;
+
+    // Every revision file in the directory, oldest first (names start with the time they were created)
+    private List<Path> files = List.of();
+
+    // Files that turned out not to be revision files
+    private final Set<Path> skippedFiles = new HashSet<>();
+
+    // Indexes of the files that are not sealed yet (guarded by this)
+    private final Map<Path, FileIndex> openIndexes = new HashMap<>();
+
+    // Sealed files -> their size when they were sealed, to notice one that was written to again (guarded by this)
+    private final Map<Path, Long> sealedSizes = new HashMap<>();
+
+    // The most recently used sealed indexes (guarded by itself)
+    private final Map<Path, SealedIndex> sealedIndexes;
+
+    // Read channels of the most recently used revision files, reused for every block read (guarded by itself)
+    private final Map<Path, FileChannel> readChannels;
+
+    private FileChannel currentFile;
+    private Path currentPath;
+    private int fileNumber;
+    private volatile long lastScanMillis;
+
+    public RevisionLog(Path directory, String writerId, long maxFileBytes, long rescanIntervalMillis) {
+        this(directory, writerId, maxFileBytes, rescanIntervalMillis, DEFAULT_CACHED_INDEXES);
+    }
+
+    public RevisionLog(Path directory, String writerId, long maxFileBytes, long rescanIntervalMillis,
+                       int cachedIndexes) {
+        this.directory = directory;
+        this.writerId = writerId;
+        this.maxFileBytes = maxFileBytes;
+        this.rescanIntervalMillis = rescanIntervalMillis;
+
+        int capacity = Math.max(1, cachedIndexes);
+        this.sealedIndexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, SealedIndex> eldest) {
+                if (size() > capacity) {
+                    closeQuietly(eldest.getKey(), eldest.getValue().channel);
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.readChannels = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, FileChannel> eldest) {
+                if (size() > capacity) {
+                    closeQuietly(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        rescan();
+    }
+
+    /**
+     * Write revisions as one new block. When this returns, the block is on disk and in the index.
+     */
+    public synchronized void append(List<RevisionRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        byte[] block = encodeBlock(records);
+
+        if (currentFile == null || currentFile.size() + block.length > maxFileBytes) {
+            startNewFile();
+        }
+
+        long offset = currentFile.size();
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        while (buffer.hasRemaining()) {
+            currentFile.write(buffer, offset + buffer.position());
+        }
+        currentFile.force(false);
+
+        FileIndex index = openIndexes.get(currentPath);
+        index.add(new BlockRef(offset, block.length), taskIdsOf(records));
+        index.indexedUpTo = offset + block.length;
+        index.scannedSize = index.indexedUpTo;
+    }
+
+    /**
+     * Every revision of a task, oldest first.
+     */
+    public List<RevisionRecord> read(long taskId) throws IOException {
+        // Take the blocks of the open files from their index; sealed files are looked up below
+        List<Path> allFiles;
+        Map<Path, List<BlockRef>> openBlocks = new HashMap<>();
+        synchronized (this) {
+            allFiles = files;
+            for (Map.Entry<Path, FileIndex> entry : openIndexes.entrySet()) {
+                openBlocks.put(entry.getKey(), List.copyOf(entry.getValue().blocks.getOrDefault(taskId, List.of())));
+            }
+        }
+
+        List<RevisionRecord> revisions = new ArrayList<>();
+        for (Path file : allFiles) {
+            List<BlockRef> blocks = openBlocks.get(file);
+            if (blocks == null) {
+                blocks = sealedBlocksOf(file, taskId);
+            }
+            for (BlockRef block : blocks) {
+                addRevisions(revisions, readBlock(file, block), taskId);
+            }
+        }
+
+        // Blocks from different instances are not in time order - sort (the sort is stable for equal times)
+        revisions.sort(Comparator.comparing(RevisionRecord::getChangedAt));
+        return revisions;
+    }
+
+    /**
+     * Pick up files and blocks written by other instances, and seal files nobody writes to any more.
+     * Does nothing if the last scan was less than rescanIntervalMillis ago. Meant to be called
+     * regularly from a background thread.
+     */
+    public synchronized void refresh() {
+        if (System.currentTimeMillis() - lastScanMillis >= rescanIntervalMillis) {
+            rescan();
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        closeCurrentFile();
+        synchronized (sealedIndexes) {
+            for (Map.Entry<Path, SealedIndex> entry : sealedIndexes.entrySet()) {
+                closeQuietly(entry.getKey(), entry.getValue().channel);
+            }
+            sealedIndexes.clear();
+        }
+        synchronized (readChannels) {
+            readChannels.forEach(RevisionLog::closeQuietly);
+            readChannels.clear();
+        }
+    }
+
+    // Close the file we write to, and seal it
+    private void closeCurrentFile() throws IOException {
+        if (currentFile == null) {
+            return;
+        }
+        currentFile.close();
+        currentFile = null;
+
+        FileIndex index = openIndexes.get(currentPath);
+        if (index != null) {
+            seal(currentPath, index);
+        }
+    }
+
+    private void startNewFile() throws IOException {
+        closeCurrentFile();
+
+        // Name = time + writer + number, so every instance (and every restart) writes its own files
+        do {
+            fileNumber++;
+            currentPath = directory.resolve(String.format("revisions-%013d-%s-%04d%s",
+                System.currentTimeMillis(), writerId, fileNumber, FILE_SUFFIX));
+        } while (Files.exists(currentPath));
+
+        currentFile = FileChannel.open(currentPath, StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(FILE_MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            currentFile.write(header, header.position());
+        }
+
+        FileIndex index = new FileIndex();
+        index.indexedUpTo = FILE_HEADER_SIZE;
+        index.scannedSize = FILE_HEADER_SIZE;
+        openIndexes.put(currentPath, index);
+
+        List<Path> allFiles = new ArrayList<>(files);
+        allFiles.add(currentPath);
+        allFiles.sort(null);
+        files = List.copyOf(allFiles);
+    }
+
+    // Find new files, index blocks added to the open files since the last scan,
+    // and seal the open files nobody writes to any more
+    private void rescan() {
+        lastScanMillis = System.currentTimeMillis();
+        List<Path> listed;
+        Set<Path> indexFiles;
+        try (Stream<Path> listing = Files.list(directory)) {
+            List<Path> all = listing.toList();
+            listed = all.stream()
+                .filter(file -> file.getFileName().toString().endsWith(FILE_SUFFIX))
+                .filter(file -> !skippedFiles.contains(file))
+                .sorted()
+                .toList();
+            indexFiles = all.stream()
+                .filter(file -> file.getFileName().toString().endsWith(INDEX_SUFFIX))
+                .collect(HashSet::new, Set::add, Set::addAll);
+        } catch (IOException e) {
+            log.warn("Could not list revision files in {}: {}", directory, e.getMessage());
+            return;
+        }
+
+        for (Path file : listed) {
+            try {
+                rescanFile(file, indexFiles.contains(indexFileOf(file)));
+            } catch (NoSuchFileException e) {
+                // Removed since we listed the directory
+            } catch (IOException e) {
+                log.warn("Could not read revision file {}: {}", file, e.getMessage());
+            }
+        }
+
+        // Forget files that are gone
+        Set<Path> present = new HashSet<>(listed);
+        openIndexes.keySet().removeIf(file -> !present.contains(file) && !file.equals(currentPath));
+        sealedSizes.keySet().removeIf(file -> !present.contains(file));
+        files = listed.stream().filter(file -> !skippedFiles.contains(file)).toList();
+        if (currentPath != null && !files.contains(currentPath)) {
+            List<Path> allFiles = new ArrayList<>(files);
+            allFiles.add(currentPath);
+            allFiles.sort(null);
+            files = List.copyOf(allFiles);
+        }
+    }
+
+    private void rescanFile(Path file, boolean hasIndexFile) throws IOException {
+        if (file.equals(currentPath)) {
+            return; // append() keeps its index up to date
+        }
+
+        FileIndex index = openIndexes.get(file);
+        if (index == null) {
+            Long sealedSize = sealedSizes.get(file);
+            if (sealedSize == null && hasIndexFile) {
+                sealedSize = readSealedSize(file);
+                if (sealedSize != null) {
+                    sealedSizes.put(file, sealedSize);
+                }
+            }
+            if (sealedSize != null && Files.size(file) <= sealedSize) {
+                return; // sealed, and nobody wrote to it since
+            }
+
+            // A new file, or one that was written to after it was sealed: index it in memory again
+            sealedSizes.remove(file);
+            forgetSealedIndex(file);
+            index = new FileIndex();
+        } else if (hasIndexFile) {
+            // Sealed by its writer (or another instance) since we last looked
+            Long sealedSize = readSealedSize(file);
+            if (sealedSize != null && sealedSize >= Files.size(file)) {
+                openIndexes.remove(file);
+                sealedSizes.put(file, sealedSize);
+                return;
+            }
+        }
+
+        if (!scanBlocks(file, index)) {
+            openIndexes.remove(file);
+            return;
+        }
+        openIndexes.put(file, index);
+
+        long idleMillis = System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis();
+        if (idleMillis >= SEAL_AFTER_IDLE_MILLIS) {
+            seal(file, index);
+        }
+    }
+
+    /**
+     * Read the block headers of a file from where its index got to, and add every complete
+     * block to the index - the compressed rows are skipped.
+     * Returns false if this is not a revision file.
+     */
+    private boolean scanBlocks(Path file, FileIndex index) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long offset = index.indexedUpTo;
+
+            if (offset == 0) {
+                if (size < FILE_HEADER_SIZE) {
+                    return true;
+                }
+                ByteBuffer header = readFully(channel, 0, FILE_HEADER_SIZE);
+                if (header.getInt() != FILE_MAGIC || header.getInt() != VERSION) {
+                    log.warn("Skipping {}: not a revision file", file);
+                    skippedFiles.add(file);
+                    return false;
+                }
+                offset = FILE_HEADER_SIZE;
+            }
+
+            while (offset + BLOCK_HEADER_SIZE <= size) {
+                ByteBuffer header = readFully(channel, offset, BLOCK_HEADER_SIZE);
+                int magic = header.getInt();
+                int rowCount = header.getInt();
+                int compressedLength = header.getInt();
+                long blockLength = BLOCK_HEADER_SIZE + (long) rowCount * Long.BYTES + compressedLength;
+
+                // A block that is still being written (or was cut off by a crash) - stop here for now
+                if (magic != BLOCK_MAGIC || rowCount < 0 || compressedLength < 0 || offset + blockLength > size) {
+                    break;
+                }
+
+                ByteBuffer ids = readFully(channel, offset + BLOCK_HEADER_SIZE, rowCount * Long.BYTES);
+                long[] taskIds = new long[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    taskIds[i] = ids.getLong();
+                }
+                index.add(new BlockRef(offset, (int) blockLength), taskIds);
+                offset += blockLength;
+            }
+            index.indexedUpTo = offset;
+            index.scannedSize = size;
+            return true;
+        }
+    }
+
+    // Write the index of a finished file to its .idx file, and stop keeping it in memory
+    private void seal(Path file, FileIndex index) throws IOException {
+        List<Long> taskIds = new ArrayList<>(index.blocks.keySet());
+        taskIds.sort(null);
+        int entryCount = 0;
+        for (List<BlockRef> blocks : index.blocks.values()) {
+            entryCount += blocks.size();
+        }
+        int fenceCount = (entryCount + FENCE_INTERVAL - 1) / FENCE_INTERVAL;
+
+        // Written to a temporary file first, so nobody ever reads half an index
+        Path indexFile = indexFileOf(file);
+        Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(entryCount);
+            out.writeInt(fenceCount);
+            out.writeLong(index.indexedUpTo);
+            out.writeLong(index.scannedSize);
+
+            int entry = 0;
+            for (Long taskId : taskIds) {
+                for (int i = 0; i < index.blocks.get(taskId).size(); i++) {
+                    if (entry % FENCE_INTERVAL == 0) {
+                        out.writeLong(taskId);
+                    }
+                    entry++;
+                }
+            }
+            for (Long taskId : taskIds) {
+                for (BlockRef block : index.blocks.get(taskId)) {
+                    out.writeLong(taskId);
+                    out.writeLong(block.offset());
+                    out.writeInt(block.length());
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tempFile, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        openIndexes.remove(file);
+        sealedSizes.put(file, index.scannedSize);
+        forgetSealedIndex(file);
+    }
+
+    // The size of the file when it was sealed, or null if its .idx is not a sealed index
+    private Long readSealedSize(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFileOf(file), StandardOpenOption.READ)) {
+            if (channel.size() < INDEX_HEADER_SIZE) {
+                return null;
+            }
+            ByteBuffer header = readFully(channel, 0, INDEX_HEADER_SIZE);
+            if (header.getInt() != INDEX_MAGIC) {
+                return null;
+            }
+            return header.getLong(20);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private List<BlockRef> sealedBlocksOf(Path file, long taskId) throws IOException {
+        try {
+            return sealedIndex(file).blocksOf(taskId);
+        } catch (ClosedChannelException e) {
+            // Dropped from the cache while we were reading - load it again
+            return sealedIndex(file).blocksOf(taskId);
+        } catch (NoSuchFileException e) {
+            return List.of(); // removed since we listed the directory
+        }
+    }
+
+    private SealedIndex sealedIndex(Path file) throws IOException {
+        synchronized (sealedIndexes) {
+            SealedIndex index = sealedIndexes.get(file);
+            if (index != null) {
+                return index;
+            }
+        }
+
+        // Only the header and the fences are read here, the entries stay on disk
+        FileChannel channel = FileChannel.open(indexFileOf(file), StandardOpenOption.READ);
+        SealedIndex index;
+        try {
+            ByteBuffer header = readFully(channel, 0, INDEX_HEADER_SIZE);
+            if (header.getInt() != INDEX_MAGIC) {
+                throw new IOException("Not a revision index: " + indexFileOf(file));
+            }
+            int entryCount = header.getInt();
+            int fenceCount = header.getInt();
+            ByteBuffer fenceBytes = readFully(channel, INDEX_HEADER_SIZE, fenceCount * Long.BYTES);
+            long[] fences = new long[fenceCount];
+            for (int i = 0; i < fenceCount; i++) {
+                fences[i] = fenceBytes.getLong();
+            }
+            index = new SealedIndex(channel, entryCount, fences);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        synchronized (sealedIndexes) {
+            SealedIndex loaded = sealedIndexes.putIfAbsent(file, index);
+            if (loaded != null) {
+                // Another reader loaded it at the same time
+                channel.close();
+                return loaded;
+            }
+            return index;
+        }
+    }
+
+    private void forgetSealedIndex(Path file) {
+        synchronized (sealedIndexes) {
+            SealedIndex index = sealedIndexes.remove(file);
+            if (index != null) {
+                closeQuietly(file, index.channel);
+            }
+        }
+    }
+
+    private static Path indexFileOf(Path file) {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.length() - FILE_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    private static void closeQuietly(Path file, FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void addRevisions(List<RevisionRecord> revisions, List<RevisionRecord> block, long taskId) {
+        for (RevisionRecord record : block) {
+            if (record.getTaskId() == taskId) {
+                revisions.add(record);
+            }
+        }
+    }
+
+    private List<RevisionRecord> readBlock(Path file, BlockRef block) throws IOException {
+        ByteBuffer buffer;
+        try {
+            buffer = readFully(readChannel(file), block.offset(), block.length());
+        } catch (ClosedChannelException e) {
+            // Dropped from the cache while we were reading (or a reader was interrupted)
+            try (FileChannel ownChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+                buffer = readFully(ownChannel, block.offset(), block.length());
+            }
+        }
+
+        buffer.getInt(); // BLOCK_MAGIC, checked when the block was indexed
+        int rowCount = buffer.getInt();
+        int compressedLength = buffer.getInt();
+        int expectedCrc = buffer.getInt();
+        buffer.position(buffer.position() + rowCount * Long.BYTES);
+
+        byte[] compressed = new byte[compressedLength];
+        buffer.get(compressed);
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+        if ((int) crc.getValue() != expectedCrc) {
+            log.warn("Skipping damaged revision block in {} at offset {}", file, block.offset());
+            return List.of();
+        }
+
+        List<RevisionRecord> records = new ArrayList<>(rowCount);
+        try (DataInputStream in = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+            for (int i = 0; i < rowCount; i++) {
+                records.add(readRecord(in));
+            }
+        }
+        return records;
+    }
+
+    // The shared read channel of a file (log files are only ever appended to, so it stays valid)
+    private FileChannel readChannel(Path file) throws IOException {
+        synchronized (readChannels) {
+            FileChannel channel = readChannels.get(file);
+            if (channel == null || !channel.isOpen()) {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+                readChannels.put(file, channel);
+            }
+            return channel;
+        }
+    }
+
+    private static byte[] encodeBlock(List<RevisionRecord> records) throws IOException {
+        ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(
+                new DeflaterOutputStream(rows, new Deflater(Deflater.BEST_COMPRESSION)))) {
+            for (RevisionRecord record : records) {
+                writeRecord(out, record);
+            }
+        }
+        byte[] compressed = rows.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_SIZE + records.size() * Long.BYTES + compressed.length);
+        block.putInt(BLOCK_MAGIC);
+        block.putInt(records.size());
+        block.putInt(compressed.length);
+        block.putInt((int) crc.getValue());
+        for (RevisionRecord record : records) {
+            block.putLong(record.getTaskId());
+        }
+        block.put(compressed);
+        return block.array();
+    }
+
+    private static void writeRecord(DataOutputStream out, RevisionRecord record) throws IOException {
+        out.writeLong(record.getTaskId());
+        out.writeByte(record.getType().ordinal());
+        out.writeLong(record.getChangedAt().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(record.getChangedAt().getNano());
+        out.writeUTF(record.getChangedBy() != null ? record.getChangedBy() : "");
+
+        boolean hasSnapshot = record.getTitle() != null;
+        out.writeBoolean(hasSnapshot);
+        if (hasSnapshot) {
+            out.writeUTF(record.getTitle());
+            out.writeUTF(record.getDescription() != null ? record.getDescription() : "");
+            out.writeBoolean(Boolean.TRUE.equals(record.getCompleted()));
+
+            boolean hasDueAt = record.getDueAt() != null;
+            out.writeBoolean(hasDueAt);
+            if (hasDueAt) {
+                out.writeLong(record.getDueAt().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(record.getDueAt().getNano());
+            }
+            TaskPriority priority = record.getPriority() != null ? record.getPriority() : TaskPriority.MEDIUM;
+            out.writeByte(priority.ordinal());
+        }
+    }
+
+    private static RevisionRecord readRecord(DataInputStream in) throws IOException {
+        long taskId = in.readLong();
+        RevisionType type = RevisionType.values()[in.readByte()];
+        LocalDateTime changedAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        String changedBy = in.readUTF();
+
+        String title = null;
+        String description = null;
+        Boolean completed = null;
+        LocalDateTime dueAt = null;
+        TaskPriority priority = null;
+        if (in.readBoolean()) {
+            title = in.readUTF();
+            description = in.readUTF();
+            completed = in.readBoolean();
+            if (in.readBoolean()) {
+                dueAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            }
+            priority = TaskPriority.values()[in.readByte()];
+        }
+        return new RevisionRecord(taskId, type, changedAt, changedBy, title, description, completed,
+            dueAt, priority);
+    }
+
+    private static long[] taskIdsOf(List<RevisionRecord> records) {
+        long[] taskIds = new long[records.size()];
+        for (int i = 0; i < taskIds.length; i++) {
+            taskIds[i] = records.get(i).getTaskId();
+        }
+        return taskIds;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,90 @@
+package com.theawesomeengineer.taskmanager.history;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One change to a task: who did what, when, and what the task looked like afterwards.
+ * Deletes have no snapshot (title, description, completed and priority are null).
+ */
+public class RevisionRecord {
+
+    private final long taskId;
+    private final RevisionType type;
+    private final LocalDateTime changedAt;
+    private final String changedBy;
+    private final String title;
+    private final String description;
+    private final Boolean completed;
+    private final LocalDateTime dueAt;
+    private final TaskPriority priority;
+
+    public RevisionRecord(long taskId, RevisionType type, LocalDateTime changedAt, String changedBy,
+                          String title, String description, Boolean completed,
+                          LocalDateTime dueAt, TaskPriority priority) {
+        this.taskId = taskId;
+        this.type = type;
+        this.changedAt = changedAt;
+        this.changedBy = changedBy;
+        this.title = title;
+        this.description = description;
+        this.completed = completed;
+        this.dueAt = dueAt;
+        this.priority = priority;
+    }
+
+    // A created or updated task, as it was saved
+    public static RevisionRecord of(RevisionType type, Task task, String changedBy) {
+        return new RevisionRecord(task.getId(), type, now(), changedBy,
+            task.getTitle(), task.getDescription(), task.getCompleted(), task.getDueAt(), task.getPriority());
+    }
+
+    public static RevisionRecord deleted(long taskId, String changedBy) {
+        return new RevisionRecord(taskId, RevisionType.DELETED, now(), changedBy,
+            null, null, null, null, null);
+    }
+
+    // changedAt is always UTC - the log stores it and the API returns it as UTC
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+
+    public long getTaskId() {
+        return taskId;
+    }
+
+    public RevisionType getType() {
+        return type;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public String getChangedBy() {
+        return changedBy;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Boolean getCompleted() {
+        return completed;
+    }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public TaskPriority getPriority() {
+        return priority;
+    }
+}
@@ -0,0 +1,209 @@
+package com.theawesomeengineer.taskmanager.history;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records every change to a task in the RevisionLog, without slowing down the request.
+ * TaskService hands over the change, it goes into a queue, and a background thread
+ * writes the queued changes to disk in blocks.
+ *
+ * Who made the change is the authenticated user if the request has one. Otherwise it comes from
+ * the X-User header (or the caller's IP address if there is none) - the client can send anything
+ * there, so changedBy is only a hint, not an audit trail.
+ */
+@Component
+public class RevisionRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(RevisionRecorder.class);
+
+    public static final String USER_HEADER = "X-User";
+    private static final int MAX_USER_LENGTH = 255;
+
+    private final RevisionLog revisionLog;
+    private final BlockingQueue<RevisionRecord> queue;
+    private final int blockSize;
+    private final long flushIntervalMillis;
+    private final Thread writerThread;
+
+    // For flush(): how many revisions were handed over, and how many are on disk
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private volatile boolean running = true;
+
+    public RevisionRecorder(@Value("${taskmanager.history.directory:data/history}") String directory,
+                            @Value("${taskmanager.history.queue-size:10000}") int queueSize,
+                            @Value("${taskmanager.history.block-size:256}") int blockSize,
+                            @Value("${taskmanager.history.flush-interval-millis:200}") long flushIntervalMillis,
+                            @Value("${taskmanager.history.max-file-mb:64}") long maxFileMb,
+                            @Value("${taskmanager.history.rescan-interval-millis:5000}") long rescanIntervalMillis,
+                            @Value("${taskmanager.history.cached-indexes:64}") int cachedIndexes) {
+        String writerId = UUID.randomUUID().toString().substring(0, 8);
+        this.revisionLog = new RevisionLog(Paths.get(directory), writerId, maxFileMb * 1024 * 1024, rescanIntervalMillis,
+            cachedIndexes);
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.blockSize = blockSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.writerThread = new Thread(this::writeLoop, "revision-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        revisionLog.open();
+        writerThread.start();
+    }
+
+    // A task was created or updated (call after it has been saved)
+    public void record(RevisionType type, Task task) {
+        enqueue(RevisionRecord.of(type, task, currentUser()));
+    }
+
+    // A task was deleted
+    public void recordDelete(Long taskId) {
+        enqueue(RevisionRecord.deleted(taskId, currentUser()));
+    }
+
+    /**
+     * All revisions of a task, oldest first. Changes from the last moment may still be in the queue.
+     */
+    public List<RevisionRecord> getHistory(Long taskId) throws IOException {
+        return revisionLog.read(taskId);
+    }
+
+    /**
+     * Wait until everything recorded so far is on disk (or the timeout passes).
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        long target = queuedCount.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (writtenCount.get() < target) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    // Write what's left before the app stops
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        flush(5000);
+        // Not interrupt() - that would close the file channel in the middle of a write
+        running = false;
+        writerThread.join(5000);
+        revisionLog.close();
+    }
+
+    private void enqueue(RevisionRecord record) {
+        queuedCount.incrementAndGet();
+        if (queue.offer(record)) {
+            return;
+        }
+
+        // Queue full (disk can't keep up) - wait rather than lose the revision
+        log.warn("Revision queue is full, request is waiting for the revision writer");
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            queuedCount.decrementAndGet();
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while queueing a revision of task {}, it was not recorded", record.getTaskId());
+        }
+    }
+
+    private void writeLoop() {
+        List<RevisionRecord> batch = new ArrayList<>(blockSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                // Pick up other instances' files here, so history reads never have to
+                revisionLog.refresh();
+
+                // Wait for the first revision, then collect more for a moment so blocks aren't tiny
+                RevisionRecord first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                while (batch.size() < blockSize) {
+                    long wait = deadline - System.currentTimeMillis();
+                    RevisionRecord next = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                // Write whatever is still queued, then finish
+                queue.drainTo(batch);
+                writeBatch(batch);
+                return;
+            }
+        }
+    }
+
+    private void writeBatch(List<RevisionRecord> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            revisionLog.append(batch);
+        } catch (IOException e) {
+            log.error("Could not write {} task revisions", batch.size(), e);
+        }
+        writtenCount.addAndGet(batch.size());
+        batch.clear();
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return servletAttributes.getRequest();
+        }
+        return null;
+    }
+
+    private static String currentUser() {
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return "system";
+        }
+        // A logged-in user can't be faked by the client, so it wins over the header
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && principal.getName() != null && !principal.getName().isBlank()) {
+            return truncate(principal.getName());
+        }
+        String user = request.getHeader(USER_HEADER);
+        if (user == null || user.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        return truncate(user);
+    }
+
+    private static String truncate(String user) {
+        return user.length() > MAX_USER_LENGTH ? user.substring(0, MAX_USER_LENGTH) : user;
+    }
+}
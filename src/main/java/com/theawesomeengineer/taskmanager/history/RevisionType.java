@@ -0,0 +1,10 @@
+package com.theawesomeengineer.taskmanager.history;
+
+/**
+ * What happened to a task in a revision.
+ */
+public enum RevisionType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
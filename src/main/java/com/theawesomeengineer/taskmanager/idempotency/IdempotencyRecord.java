@@ -0,0 +1,57 @@
+package com.theawesomeengineer.taskmanager.idempotency;
+
+/**
+ * One remembered Idempotency-Key.
+ * While the first request is still running the record is "pending" (no status code yet).
+ * Once it finishes we keep the status code and the JSON body so retries can be answered from here.
+ */
+public class IdempotencyRecord {
+
+    // Hash of the request (method, path and body) that first used this key
+    private final String fingerprint;
+
+    // HTTP status of the stored response, null while the request is still running
+    private final Integer statusCode;
+
+    // Serialized JSON response body, null while the request is still running
+    private final String responseBody;
+
+    // When this record stops being valid (epoch millis)
+    private final long expiresAt;
+
+    public IdempotencyRecord(String fingerprint, Integer statusCode, String responseBody, long expiresAt) {
+        this.fingerprint = fingerprint;
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+        this.expiresAt = expiresAt;
+    }
+
+    // Create a record for a request that has started but not finished yet
+    public static IdempotencyRecord pending(String fingerprint, long expiresAt) {
+        return new IdempotencyRecord(fingerprint, null, null, expiresAt);
+    }
+
+    public boolean isCompleted() {
+        return statusCode != null;
+    }
+
+    public boolean isExpired(long now) {
+        return expiresAt <= now;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
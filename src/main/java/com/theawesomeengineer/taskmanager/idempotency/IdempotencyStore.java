@@ -0,0 +1,31 @@
+package com.theawesomeengineer.taskmanager.idempotency;
+
+/**
+ * Storage for Idempotency-Keys and the responses they produced.
+ * There is an in-memory version (one instance) and a table-backed version (several instances).
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Find the record for a key.
+     * Returns null if the key was never used or its record has expired.
+     */
+    IdempotencyRecord find(String key);
+
+    /**
+     * Try to become the request that handles this key.
+     * Returns true if we got it, false if another request already holds the key.
+     */
+    boolean claim(String key, String fingerprint);
+
+    /**
+     * Save the finished response so later retries can replay it.
+     */
+    void complete(String key, String fingerprint, int statusCode, String responseBody);
+
+    /**
+     * Give the key back without saving a response (the request failed),
+     * so the client can retry it for real.
+     */
+    void release(String key);
+}
@@ -0,0 +1,120 @@
+package com.theawesomeengineer.taskmanager.idempotency;
+
+import com.theawesomeengineer.taskmanager.exception.IdempotencyStoreFullException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Idempotency store that keeps keys in memory (default).
+ * The map is bounded: when it is full the oldest finished key is dropped, and keys older than the TTL expire.
+ * A pending key (its request is still running) is never dropped - that would let a retry run the
+ * request a second time. If every key is pending, new keys are refused until one finishes.
+ * Good enough for a single instance - use the "table" store when running several.
+ */
+@Component
+@ConditionalOnProperty(name = "taskmanager.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long lockTimeoutMillis;
+
+    // Keys in the order they were first used, so the oldest ones are always at the front
+    private final LinkedHashMap<String, IdempotencyRecord> records = new LinkedHashMap<>();
+
+    public InMemoryIdempotencyStore(@Value("${taskmanager.idempotency.max-entries:10000}") int maxEntries,
+                                    @Value("${taskmanager.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                                    @Value("${taskmanager.idempotency.lock-timeout-seconds:30}") long lockTimeoutSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.lockTimeoutMillis = lockTimeoutSeconds * 1000;
+    }
+
+    @Override
+    public synchronized IdempotencyRecord find(String key) {
+        IdempotencyRecord record = records.get(key);
+        if (record == null) {
+            return null;
+        }
+
+        if (record.isExpired(System.currentTimeMillis())) {
+            records.remove(key);
+            return null;
+        }
+        return record;
+    }
+
+    @Override
+    public synchronized boolean claim(String key, String fingerprint) {
+        long now = System.currentTimeMillis();
+        removeExpired(now);
+
+        IdempotencyRecord existing = records.get(key);
+        if (existing != null && !existing.isExpired(now)) {
+            return false;
+        }
+        if (existing == null && !makeRoom(now)) {
+            throw new IdempotencyStoreFullException(
+                "Too many requests with an Idempotency-Key are still running, try again shortly");
+        }
+
+        // A pending claim only lives for the lock timeout, so a crashed request cannot block the key forever
+        records.put(key, IdempotencyRecord.pending(fingerprint, now + lockTimeoutMillis));
+        return true;
+    }
+
+    @Override
+    public synchronized void complete(String key, String fingerprint, int statusCode, String responseBody) {
+        long now = System.currentTimeMillis();
+        // Normally the pending claim is still there and just gets replaced.
+        // If it already timed out and was removed, only store the response when there is room.
+        if (!records.containsKey(key) && !makeRoom(now)) {
+            return;
+        }
+        records.put(key, new IdempotencyRecord(fingerprint, statusCode, responseBody, now + ttlMillis));
+    }
+
+    @Override
+    public synchronized void release(String key) {
+        records.remove(key);
+    }
+
+    public synchronized int size() {
+        return records.size();
+    }
+
+    // Make space for one more key by dropping expired keys, then the oldest finished one.
+    // Returns false if the map is full of pending keys.
+    private boolean makeRoom(long now) {
+        if (records.size() < maxEntries) {
+            return true;
+        }
+        Iterator<IdempotencyRecord> iterator = records.values().iterator();
+        while (iterator.hasNext()) {
+            IdempotencyRecord record = iterator.next();
+            if (record.isCompleted() || record.isExpired(now)) {
+                iterator.remove();
+                if (records.size() < maxEntries) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Remove expired keys from the front of the map. Stops at the first key that is still valid.
+    private void removeExpired(long now) {
+        Iterator<IdempotencyRecord> iterator = records.values().iterator();
+        while (iterator.hasNext()) {
+            IdempotencyRecord record = iterator.next();
+            if (!record.isExpired(now)) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.theawesomeengineer.taskmanager.idempotency;
+
+import com.theawesomeengineer.taskmanager.entity.IdempotencyKey;
+import com.theawesomeengineer.taskmanager.repository.IdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Idempotency store backed by the idempotency_keys table.
+ * Turn it on with taskmanager.idempotency.store=table when running more than one instance,
+ * so a retry that lands on a different instance still finds the original response.
+ */
+@Component
+@ConditionalOnProperty(name = "taskmanager.idempotency.store", havingValue = "table")
+public class TableIdempotencyStore implements IdempotencyStore {
+
+    // Clean up expired rows once every this many claims
+    private static final int PURGE_EVERY_CLAIMS = 1000;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Value("${taskmanager.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${taskmanager.idempotency.lock-timeout-seconds:30}")
+    private long lockTimeoutSeconds;
+
+    private final AtomicLong claimCount = new AtomicLong();
+
+    @Override
+    public IdempotencyRecord find(String key) {
+        Optional<IdempotencyKey> row = idempotencyKeyRepository.findById(key);
+        if (row.isEmpty()) {
+            return null;
+        }
+
+        IdempotencyKey idempotencyKey = row.get();
+        long expiresAt = idempotencyKey.getExpiresAt().toInstant(ZoneOffset.UTC).toEpochMilli();
+        IdempotencyRecord record = new IdempotencyRecord(idempotencyKey.getFingerprint(),
+                idempotencyKey.getStatusCode(), idempotencyKey.getResponseBody(), expiresAt);
+
+        if (record.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return record;
+    }
+
+    @Override
+    public boolean claim(String key, String fingerprint) {
+        LocalDateTime now = now();
+
+        // Every so often clear out old keys so the table doesn't keep growing
+        if (claimCount.incrementAndGet() % PURGE_EVERY_CLAIMS == 0) {
+            idempotencyKeyRepository.deleteExpired(now);
+        } else {
+            idempotencyKeyRepository.deleteIfExpired(key, now);
+        }
+
+        try {
+            idempotencyKeyRepository.insertClaim(key, fingerprint, now.plusSeconds(lockTimeoutSeconds));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another request (maybe on another instance) already has this key
+            return false;
+        }
+    }
+
+    @Override
+    public void complete(String key, String fingerprint, int statusCode, String responseBody) {
+        idempotencyKeyRepository.complete(key, statusCode, responseBody, now().plusSeconds(ttlSeconds));
+    }
+
+    @Override
+    public void release(String key) {
+        idempotencyKeyRepository.deleteById(key);
+    }
+
+    // All times in UTC, like the rest of the app
+    private LocalDateTime now() {
+        return LocalDateTime.now(ZoneOffset.UTC);
+    }
+}
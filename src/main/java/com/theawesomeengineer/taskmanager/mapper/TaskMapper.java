@@ -1,8 +1,12 @@
 package com.theawesomeengineer.taskmanager.mapper;
 
 import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
+import com.theawesomeengineer.taskmanager.history.RevisionRecord;
+import com.theawesomeengineer.taskmanager.model.TaskRevision;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 
@@ -28,16 +32,64 @@ public class TaskMapper {
         model.setTitle(entity.getTitle());
         model.setDescription(entity.getDescription());
         model.setCompleted(entity.getCompleted());
+        model.setDueAt(toOffsetDateTime(entity.getDueAt()));
+        model.setPriority(toModel(entity.getPriority()));
         model.setCreatedAt(toOffsetDateTime(entity.getCreatedAt()));
         model.setUpdatedAt(toOffsetDateTime(entity.getUpdatedAt()));
 
         return model;
     }
 
+    /**
+     * Convert a recorded revision to the OpenAPI TaskRevision model
+     * @param revisionNumber position in the task's history, starting at 1
+     */
+    public TaskRevision toModel(RevisionRecord record, int revisionNumber) {
+        TaskRevision model = new TaskRevision();
+        model.setRevision(revisionNumber);
+        model.setTaskId(record.getTaskId());
+        model.setOperation(TaskRevision.OperationEnum.fromValue(record.getType().name()));
+        model.setChangedAt(toOffsetDateTime(record.getChangedAt()));
+        model.setChangedBy(record.getChangedBy());
+        model.setTitle(record.getTitle());
+        model.setDescription(record.getDescription());
+        model.setCompleted(record.getCompleted());
+        model.setDueAt(toOffsetDateTime(record.getDueAt()));
+        model.setPriority(toModel(record.getPriority()));
+        return model;
+    }
+
+    /**
+     * Convert the API priority to the entity one (null stays null)
+     */
+    public TaskPriority toEntity(com.theawesomeengineer.taskmanager.model.TaskPriority priority) {
+        if (priority == null) {
+            return null;
+        }
+        return TaskPriority.valueOf(priority.name());
+    }
+
+    /**
+     * Convert an API date-time to the UTC LocalDateTime we store (null stays null)
+     */
+    public LocalDateTime toLocalDateTime(OffsetDateTime offsetDateTime) {
+        if (offsetDateTime == null) {
+            return null;
+        }
+        return offsetDateTime.withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+    }
+
+    private com.theawesomeengineer.taskmanager.model.TaskPriority toModel(TaskPriority priority) {
+        if (priority == null) {
+            return null;
+        }
+        return com.theawesomeengineer.taskmanager.model.TaskPriority.valueOf(priority.name());
+    }
+
     /**
      * Convert LocalDateTime to OffsetDateTime for API response
      */
-    private OffsetDateTime toOffsetDateTime(java.time.LocalDateTime localDateTime) {
+    private OffsetDateTime toOffsetDateTime(LocalDateTime localDateTime) {
         if (localDateTime == null) {
             return null;
         }
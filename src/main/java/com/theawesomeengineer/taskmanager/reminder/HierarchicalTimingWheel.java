@@ -0,0 +1,207 @@
+package com.theawesomeengineer.taskmanager.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel - holds millions of timers, with O(1) schedule and cancel.
+ *
+ * Think of a clock with several hands. Level 0 has wheelSize slots of tickMillis each,
+ * level 1 has wheelSize slots that are each as long as all of level 0, and so on.
+ * A timer goes into the lowest level whose range reaches its deadline, in the slot that covers it.
+ * Each slot is a linked list, so adding and removing a timer never searches anything.
+ *
+ * advanceTo(now) moves the clock forward one tick at a time. When it enters a new slot of a
+ * higher level, the timers in that slot are moved down to the lower levels ("cascading"),
+ * and the timers in each finished level-0 slot are returned as expired.
+ * A timer fires at most one tick after its deadline (plus however late advanceTo is called).
+ * Deadlines beyond the top level wait in its last slot and are cascaded again when it comes round.
+ *
+ * All methods are synchronized - they are short, so one lock is fine.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    /**
+     * A scheduled timer. Keep it to cancel the timer later.
+     */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineMillis;
+
+        // The slot this timer is in (null once it has expired or been cancelled), and its neighbours there
+        private Slot<T> slot;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineMillis) {
+            this.payload = payload;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+    }
+
+    // A doubly linked list of timers
+    private static final class Slot<T> {
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.slot = this;
+            timeout.previous = null;
+            timeout.next = head;
+            if (head != null) {
+                head.previous = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.slot = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        // Take every timer out of the slot
+        Timeout<T> clear() {
+            Timeout<T> first = head;
+            head = null;
+            return first;
+        }
+    }
+
+    private final long tickMillis;
+    private final int wheelSize;
+
+    // slots[level][index], and how long one slot of each level is
+    private final Slot<T>[][] slots;
+    private final long[] slotMillis;
+
+    // Start of the level-0 slot that hasn't expired yet (always a multiple of tickMillis)
+    private long currentTime;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Need tickMillis >= 1, wheelSize >= 2 and levels >= 1");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.slots = new Slot[levels][wheelSize];
+        this.slotMillis = new long[levels];
+
+        long length = tickMillis;
+        for (int level = 0; level < levels; level++) {
+            slotMillis[level] = length;
+            for (int index = 0; index < wheelSize; index++) {
+                slots[level][index] = new Slot<>();
+            }
+            length = Math.multiplyExact(length, wheelSize);
+        }
+        this.currentTime = Math.floorDiv(startMillis, tickMillis) * tickMillis;
+    }
+
+    /**
+     * Add a timer. A deadline in the past expires on the next tick.
+     */
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(payload, deadlineMillis);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Remove a timer. Returns false if it already expired or was cancelled.
+     */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.slot == null) {
+            return false;
+        }
+        timeout.slot.remove(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Move the clock forward to nowMillis and return the payloads of every timer that expired.
+     */
+    public synchronized List<T> advanceTo(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        while (currentTime + tickMillis <= nowMillis) {
+            // Every timer in this level-0 slot has a deadline before currentTime + tickMillis
+            Slot<T> slot = slots[0][indexOf(0, currentTime)];
+            for (Timeout<T> timeout = slot.clear(); timeout != null; ) {
+                Timeout<T> next = timeout.next;
+                timeout.slot = null;
+                timeout.previous = null;
+                timeout.next = null;
+                expired.add(timeout.payload);
+                size--;
+                timeout = next;
+            }
+
+            currentTime += tickMillis;
+
+            // Entering a new slot of a higher level - move its timers down (highest level first,
+            // so timers cascaded into a lower slot that also starts now are moved on again)
+            for (int level = slots.length - 1; level > 0; level--) {
+                if (currentTime % slotMillis[level] == 0) {
+                    cascade(slots[level][indexOf(level, currentTime)]);
+                }
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private void cascade(Slot<T> slot) {
+        for (Timeout<T> timeout = slot.clear(); timeout != null; ) {
+            Timeout<T> next = timeout.next;
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    // Put a timer into the lowest level whose range covers its deadline
+    private void place(Timeout<T> timeout) {
+        long deadline = Math.max(timeout.deadlineMillis, currentTime);
+        for (int level = 0; level < slots.length; level++) {
+            long slotsAhead = Math.floorDiv(deadline, slotMillis[level]) - Math.floorDiv(currentTime, slotMillis[level]);
+            if (slotsAhead < wheelSize) {
+                slots[level][indexOf(level, deadline)].add(timeout);
+                return;
+            }
+        }
+
+        // Further away than the whole wheel - park it in the top level's last slot and place it again from there
+        int top = slots.length - 1;
+        long lastSlotStart = (Math.floorDiv(currentTime, slotMillis[top]) + wheelSize - 1) * slotMillis[top];
+        slots[top][indexOf(top, lastSlotStart)].add(timeout);
+    }
+
+    private int indexOf(int level, long time) {
+        return (int) Math.floorMod(Math.floorDiv(time, slotMillis[level]), (long) wheelSize);
+    }
+}
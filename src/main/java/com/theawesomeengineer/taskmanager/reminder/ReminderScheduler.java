@@ -0,0 +1,317 @@
+package com.theawesomeengineer.taskmanager.reminder;
+
+import com.theawesomeengineer.taskmanager.cache.CacheInvalidationBus;
+import com.theawesomeengineer.taskmanager.cache.InvalidationMessage;
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends a TaskReminderEvent when an open task is due soon, and again when it is overdue,
+ * without polling the tasks table.
+ *
+ * Every open task with a due date has up to two timers in a HierarchicalTimingWheel.
+ * - At start-up the timers are rebuilt from the database, a page of IDs and due dates at a time
+ * - TaskService calls taskSaved / taskDeleted, so the timers follow every change made here
+ * - Changes made by other instances arrive on the CacheInvalidationBus and are re-read from the database
+ * A ticker thread moves the wheel forward every tick, so events fire at most about one tick late.
+ * Before an event is sent the task is read once more, so a stale timer never sends a wrong event.
+ *
+ * Off by default. Every instance with reminders enabled sends its own events - enable them on one instance only.
+ */
+@Component
+public class ReminderScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    // 256 slots on 4 levels - with 1 second ticks that reaches about 136 years ahead
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_LEVELS = 4;
+
+    // One timer: which task, which event, and which version of the task's timers it belongs to
+    private record Reminder(long taskId, ReminderType type, long generation) {
+    }
+
+    // A task's current timers. A new generation number every time they are replaced.
+    private record TaskTimers(LocalDateTime dueAt, long generation,
+                              List<HierarchicalTimingWheel.Timeout<Reminder>> timeouts) {
+    }
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final boolean enabled;
+    private final long tickMillis;
+    private final long remindBeforeMillis;
+    private final long missedGraceMillis;
+    private final int rebuildPageSize;
+    private final int dispatchThreads;
+
+    // task ID -> its timers (only open tasks with a due date are in here)
+    private final Map<Long, TaskTimers> timersByTask = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+
+    private HierarchicalTimingWheel<Reminder> wheel;
+    private ScheduledExecutorService ticker;
+    private ExecutorService dispatcher;
+
+    public ReminderScheduler(@Value("${taskmanager.reminders.enabled:false}") boolean enabled,
+                             @Value("${taskmanager.reminders.tick-millis:1000}") long tickMillis,
+                             @Value("${taskmanager.reminders.remind-before-minutes:15}") long remindBeforeMinutes,
+                             @Value("${taskmanager.reminders.missed-grace-minutes:5}") long missedGraceMinutes,
+                             @Value("${taskmanager.reminders.rebuild-page-size:1000}") int rebuildPageSize,
+                             @Value("${taskmanager.reminders.dispatch-threads:2}") int dispatchThreads) {
+        this.enabled = enabled;
+        this.tickMillis = tickMillis;
+        this.remindBeforeMillis = TimeUnit.MINUTES.toMillis(remindBeforeMinutes);
+        this.missedGraceMillis = TimeUnit.MINUTES.toMillis(missedGraceMinutes);
+        this.rebuildPageSize = rebuildPageSize;
+        this.dispatchThreads = dispatchThreads;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        wheel = new HierarchicalTimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+
+        // Loading the task and sending the event happens on the dispatcher, so a slow listener can't delay the ticks
+        AtomicInteger threadNumber = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "reminder-dispatch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+
+        cacheInvalidationBus.addListener(this::onRemoteChange);
+    }
+
+    // Rebuild in the background once the app is up - new changes are tracked from the start anyway
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildWhenReady() {
+        if (enabled) {
+            dispatcher.execute(this::rebuild);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            dispatcher.shutdownNow();
+        }
+    }
+
+    /**
+     * A task was created or changed (call after it has been saved).
+     */
+    public void taskSaved(Task task) {
+        if (!enabled || task.getId() == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(task.getCompleted()) || task.getDueAt() == null) {
+            taskDeleted(task.getId());
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        timersByTask.compute(task.getId(), (id, existing) -> {
+            // Same due date - keep the timers (and don't send an event that was already sent again)
+            if (existing != null && existing.dueAt().equals(task.getDueAt())) {
+                return existing;
+            }
+            cancel(existing);
+            return createTimers(id, task.getDueAt(), now);
+        });
+    }
+
+    /**
+     * A task was deleted (or no longer needs reminders).
+     */
+    public void taskDeleted(Long taskId) {
+        if (!enabled) {
+            return;
+        }
+        cancel(timersByTask.remove(taskId));
+    }
+
+    /**
+     * Load the timers of every open task with a due date, replacing nothing that is already there
+     * (those were set by a change made after the rebuild started, so they are newer).
+     * Events missed while the app was down are only sent if they are less than missed-grace-minutes old.
+     */
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        long notBefore = start - missedGraceMillis;
+        LocalDateTime from = toLocalDateTime(notBefore);
+
+        int loaded = 0;
+        Long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<TaskDueDate> page = taskRepository.findDueDates(
+                from, afterId, PageRequest.of(0, rebuildPageSize, Sort.by("id")));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            for (TaskDueDate dueDate : page) {
+                timersByTask.computeIfAbsent(dueDate.getId(), id -> createTimers(id, dueDate.getDueAt(), notBefore));
+            }
+            loaded += page.size();
+            afterId = page.get(page.size() - 1).getId();
+
+            if (page.size() < rebuildPageSize) {
+                break;
+            }
+        }
+
+        log.info("Scheduled reminders for {} tasks in {} ms ({} timers in the wheel)",
+            loaded, System.currentTimeMillis() - start, wheel.size());
+        return loaded;
+    }
+
+    // How many timers are waiting
+    public int getScheduledCount() {
+        return enabled ? wheel.size() : 0;
+    }
+
+    // Timers for a due date: the reminder (if the task isn't overdue yet) and the overdue event.
+    // Times before notBefore are skipped - those events were already sent, or missed too long ago.
+    private TaskTimers createTimers(long taskId, LocalDateTime dueAt, long notBefore) {
+        long dueMillis = toMillis(dueAt);
+        long generation = generations.incrementAndGet();
+        List<HierarchicalTimingWheel.Timeout<Reminder>> timeouts = new ArrayList<>(2);
+
+        if (dueMillis > System.currentTimeMillis()) {
+            // Due sooner than remind-before-minutes from now? Remind straight away.
+            long remindAt = Math.max(dueMillis - remindBeforeMillis, notBefore);
+            timeouts.add(wheel.schedule(new Reminder(taskId, ReminderType.REMINDER, generation), remindAt));
+        }
+        if (dueMillis >= notBefore) {
+            timeouts.add(wheel.schedule(new Reminder(taskId, ReminderType.OVERDUE, generation), dueMillis));
+        }
+
+        if (timeouts.isEmpty()) {
+            return null;
+        }
+        return new TaskTimers(dueAt, generation, timeouts);
+    }
+
+    private void cancel(TaskTimers timers) {
+        if (timers == null) {
+            return;
+        }
+        for (HierarchicalTimingWheel.Timeout<Reminder> timeout : timers.timeouts()) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    private void tick() {
+        try {
+            for (Reminder reminder : wheel.advanceTo(System.currentTimeMillis())) {
+                dispatcher.execute(() -> fire(reminder));
+            }
+        } catch (Exception e) {
+            // An exception would stop scheduleAtFixedRate for good
+            log.error("Reminder tick failed", e);
+        }
+    }
+
+    private void fire(Reminder reminder) {
+        try {
+            // A timer that was replaced just as it expired - the newer timers take care of it
+            TaskTimers current = timersByTask.get(reminder.taskId());
+            if (current == null || current.generation() != reminder.generation()) {
+                return;
+            }
+            // The overdue event is the last one for this due date
+            if (reminder.type() == ReminderType.OVERDUE) {
+                timersByTask.remove(reminder.taskId(), current);
+            }
+
+            // Check with the database - another instance may have completed or changed the task
+            Optional<Task> task = taskRepository.findById(reminder.taskId());
+            if (task.isEmpty() || Boolean.TRUE.equals(task.get().getCompleted())
+                || !current.dueAt().equals(task.get().getDueAt())) {
+                return;
+            }
+            eventPublisher.publishEvent(new TaskReminderEvent(this, reminder.type(), task.get()));
+        } catch (Exception e) {
+            log.warn("Could not send the {} event for task {}", reminder.type(), reminder.taskId(), e);
+        }
+    }
+
+    // Another instance changed a task - read it again and fix its timers
+    private void onRemoteChange(InvalidationMessage message) {
+        if (!Task.class.getName().equals(message.getEntityName())) {
+            return;
+        }
+        long taskId;
+        try {
+            taskId = Long.parseLong(message.getEntityId());
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        dispatcher.execute(() -> {
+            try {
+                Optional<Task> task = taskRepository.findById(taskId);
+                if (task.isPresent()) {
+                    taskSaved(task.get());
+                } else {
+                    taskDeleted(taskId);
+                }
+            } catch (Exception e) {
+                log.warn("Could not update the reminders of task {}", taskId, e);
+            }
+        });
+    }
+
+    // Due dates are stored in UTC
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+            (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,11 @@
+package com.theawesomeengineer.taskmanager.reminder;
+
+/**
+ * The two events ReminderScheduler sends for a task with a due date.
+ */
+public enum ReminderType {
+    // The task is due soon (taskmanager.reminders.remind-before-minutes before dueAt)
+    REMINDER,
+    // The due date has passed and the task still isn't completed
+    OVERDUE
+}
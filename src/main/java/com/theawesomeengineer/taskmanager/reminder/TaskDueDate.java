@@ -0,0 +1,26 @@
+package com.theawesomeengineer.taskmanager.reminder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Just the ID and due date of a task - all ReminderScheduler needs when it rebuilds its timers,
+ * so the rebuild doesn't have to load (and cache) whole tasks.
+ */
+public class TaskDueDate {
+
+    private final Long id;
+    private final LocalDateTime dueAt;
+
+    public TaskDueDate(Long id, LocalDateTime dueAt) {
+        this.id = id;
+        this.dueAt = dueAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+}
@@ -0,0 +1,29 @@
+package com.theawesomeengineer.taskmanager.reminder;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by ReminderScheduler when a task is due soon or overdue.
+ * Anything that wants to react (send an email, a push message, ...) can listen with @EventListener.
+ */
+public class TaskReminderEvent extends ApplicationEvent {
+
+    private final ReminderType type;
+    private final Task task;
+
+    public TaskReminderEvent(Object source, ReminderType type, Task task) {
+        super(source);
+        this.type = type;
+        this.task = task;
+    }
+
+    public ReminderType getType() {
+        return type;
+    }
+
+    // The task as it is in the database when the event fires
+    public Task getTask() {
+        return task;
+    }
+}
@@ -0,0 +1,28 @@
+package com.theawesomeengineer.taskmanager.reminder;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes every reminder to the log. Other listeners (email, push, ...) can be added next to it.
+ */
+@Component
+public class TaskReminderLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskReminderLogger.class);
+
+    @EventListener
+    public void onReminder(TaskReminderEvent event) {
+        Task task = event.getTask();
+        if (event.getType() == ReminderType.REMINDER) {
+            log.info("Reminder: task {} \"{}\" ({} priority) is due at {} UTC",
+                task.getId(), task.getTitle(), task.getPriority(), task.getDueAt());
+        } else {
+            log.info("Overdue: task {} \"{}\" ({} priority) was due at {} UTC",
+                task.getId(), task.getTitle(), task.getPriority(), task.getDueAt());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.theawesomeengineer.taskmanager.repository;
+
+import com.theawesomeengineer.taskmanager.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for Idempotency-Keys stored in the database.
+ * The insert is a plain INSERT (not save()) so two instances claiming the same key
+ * can't both win - the second one fails on the primary key.
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    // Claim a key - throws DataIntegrityViolationException if the key already exists
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, fingerprint, expires_at) "
+            + "VALUES (:key, :fingerprint, :expiresAt)", nativeQuery = true)
+    int insertClaim(@Param("key") String key,
+                    @Param("fingerprint") String fingerprint,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Save the finished response for a key
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKey k SET k.statusCode = :statusCode, k.responseBody = :responseBody, "
+            + "k.expiresAt = :expiresAt WHERE k.key = :key")
+    int complete(@Param("key") String key,
+                 @Param("statusCode") Integer statusCode,
+                 @Param("responseBody") String responseBody,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Remove one key if it has expired, so it can be claimed again
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.key = :key AND k.expiresAt <= :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    // Remove all expired keys
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
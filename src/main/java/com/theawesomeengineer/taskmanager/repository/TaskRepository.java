@@ -1,8 +1,21 @@
 package com.theawesomeengineer.taskmanager.repository;
 
 import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.reminder.TaskDueDate;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Repository - talks to the database
@@ -10,13 +23,42 @@ import org.springframework.stereotype.Repository;
  * We don't need to write SQL - Spring does it for us!
  */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
     // This interface is empty, but we get these methods automatically:
     // - save(task) - saves or updates a task
     // - findById(id) - finds a task by ID
     // - findAll() - gets all tasks
+    // - findAllById(ids) - gets many tasks at once (our own version, see TaskRepositoryCustomImpl)
     // - deleteById(id) - deletes a task
     // - existsById(id) - checks if task exists
 
     // That's the power of Spring Data JPA - no code needed!
+
+    // Same as the built-in findAll(), but the result goes into Hibernate's query cache
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Task> findAll();
+
+    // One page of tasks, in the Pageable's order (the warm-up reads a few when it has no hot task IDs)
+    List<Task> findAllBy(Pageable pageable);
+
+    // Completed tasks last changed before the cutoff - these are ready to be archived
+    List<Task> findByCompletedTrueAndUpdatedAtBefore(LocalDateTime cutoff, Pageable pageable);
+
+    // Open tasks due before the given time (overdue ones included) - pass the order in the Pageable,
+    // e.g. most important first, then soonest due
+    List<Task> findByCompletedFalseAndDueAtBefore(LocalDateTime until, Pageable pageable);
+
+    // ID and due date of open tasks due from the given time on, with an ID above afterId
+    // (ReminderScheduler pages through these in ID order when it rebuilds its timers)
+    @Query("select new com.theawesomeengineer.taskmanager.reminder.TaskDueDate(t.id, t.dueAt) from Task t "
+        + "where t.completed = false and t.dueAt >= :from and t.id > :afterId")
+    List<TaskDueDate> findDueDates(@Param("from") LocalDateTime from, @Param("afterId") Long afterId,
+                                   Pageable pageable);
+
+    // Delete tasks that were just archived, but only if they still qualify (nobody changed them meanwhile)
+    @Modifying
+    @Transactional
+    @Query("delete from Task t where t.id in :ids and t.completed = true and t.updatedAt < :cutoff")
+    int deleteArchived(@Param("ids") Collection<Long> ids, @Param("cutoff") LocalDateTime cutoff);
 }
@@ -0,0 +1,18 @@
+package com.theawesomeengineer.taskmanager.repository;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * TaskRepository methods we write ourselves instead of letting Spring generate them
+ * (the code is in TaskRepositoryCustomImpl).
+ */
+public interface TaskRepositoryCustom {
+
+    // Replaces JpaRepository's findAllById - tasks that are cached don't need a query
+    // (the annotation is here because Spring Data reads it from the repository interface)
+    @Transactional(readOnly = true)
+    List<Task> findAllById(Iterable<Long> ids);
+}
@@ -0,0 +1,55 @@
+package com.theawesomeengineer.taskmanager.repository;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spring Data uses these methods in place of its own ones with the same name.
+ */
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // How many IDs go into one "where id in (...)" query
+    @Value("${taskmanager.batch-get.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Load many tasks at once. Spring's own findAllById always runs a query, but Hibernate's
+     * multi-load first takes every task it can from the second-level cache (when it is enabled),
+     * then loads only the rest with "in" queries of up to chunkSize IDs each.
+     * Tasks that don't exist are left out; the order of the result is not the order of the IDs.
+     */
+    @Override
+    public List<Task> findAllById(Iterable<Long> ids) {
+        List<Long> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (idList.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Task> loaded = entityManager.unwrap(Session.class)
+            .byMultipleIds(Task.class)
+            .with(CacheMode.NORMAL)
+            .enableSessionCheck(true)
+            .withBatchSize(chunkSize)
+            .multiLoad(idList);
+
+        // Missing tasks come back as null
+        List<Task> found = new ArrayList<>(loaded.size());
+        for (Task task : loaded) {
+            if (task != null) {
+                found.add(task);
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,171 @@
+package com.theawesomeengineer.taskmanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theawesomeengineer.taskmanager.exception.IdempotencyKeyConflictException;
+import com.theawesomeengineer.taskmanager.exception.IdempotencyKeyInProgressException;
+import com.theawesomeengineer.taskmanager.idempotency.IdempotencyRecord;
+import com.theawesomeengineer.taskmanager.idempotency.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Service class - makes POST/PUT safe to retry with an Idempotency-Key header
+ * The first request with a key runs normally and its response is stored.
+ * Retries with the same key get the stored response back without touching TaskService again.
+ */
+@Service
+public class IdempotencyService {
+
+    // Header added to replayed responses so clients can tell them apart
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // How often to re-check a key held by another instance
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    // Where keys and stored responses live (memory or database table)
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    // Turns response bodies into JSON and back
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // How long a duplicate request waits for the first one to finish
+    @Value("${taskmanager.idempotency.wait-timeout-millis:10000}")
+    private long waitTimeoutMillis;
+
+    // Requests running on this instance right now, so duplicates can wait without polling
+    private final ConcurrentHashMap<String, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Build a fingerprint of a request so we can detect a key reused for a different request.
+     */
+    public String fingerprint(String method, String path, Object requestBody) {
+        try {
+            String request = method + " " + path + " " + objectMapper.writeValueAsString(requestBody);
+            return DigestUtils.md5DigestAsHex(request.getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    /**
+     * Run the action once per Idempotency-Key.
+     * - No key: just run the action
+     * - Key already finished: replay the stored response
+     * - Key still running: wait for it, then replay
+     * - Key used with a different request: throw IdempotencyKeyConflictException
+     */
+    public <T> ResponseEntity<T> execute(String key, String fingerprint, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> action) {
+        // Header not sent - behave like before
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        long deadline = System.currentTimeMillis() + waitTimeoutMillis;
+
+        while (true) {
+            IdempotencyRecord record = idempotencyStore.find(key);
+
+            // New key - try to be the one that runs it
+            if (record == null) {
+                if (idempotencyStore.claim(key, fingerprint)) {
+                    return runAndStore(key, fingerprint, action);
+                }
+                // Someone else claimed it between find() and claim(), look again
+                continue;
+            }
+
+            if (!record.getFingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyConflictException(
+                    "Idempotency-Key " + key + " was already used for a different request");
+            }
+
+            if (record.isCompleted()) {
+                return replay(record, bodyType);
+            }
+
+            // The first request is still running - wait for it to finish
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new IdempotencyKeyInProgressException(
+                    "A request with Idempotency-Key " + key + " is still being processed");
+            }
+            waitForInFlight(key, remaining);
+        }
+    }
+
+    // Run the real request and store its response for later retries
+    private <T> ResponseEntity<T> runAndStore(String key, String fingerprint, Supplier<ResponseEntity<T>> action) {
+        CountDownLatch latch = new CountDownLatch(1);
+        inFlight.put(key, latch);
+
+        try {
+            ResponseEntity<T> response = action.get();
+
+            // Only successful responses are remembered, errors can be retried
+            if (response.getStatusCode().is2xxSuccessful()) {
+                store(key, fingerprint, response);
+            } else {
+                idempotencyStore.release(key);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            idempotencyStore.release(key);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+            latch.countDown();
+        }
+    }
+
+    // Save the response body as JSON under the key
+    private <T> void store(String key, String fingerprint, ResponseEntity<T> response) {
+        try {
+            String body = objectMapper.writeValueAsString(response.getBody());
+            idempotencyStore.complete(key, fingerprint, response.getStatusCode().value(), body);
+        } catch (JsonProcessingException e) {
+            // The request itself worked, we just can't remember it - let a retry run again
+            idempotencyStore.release(key);
+        }
+    }
+
+    // Build a response from a stored record
+    private <T> ResponseEntity<T> replay(IdempotencyRecord record, Class<T> bodyType) {
+        try {
+            T body = objectMapper.readValue(record.getResponseBody(), bodyType);
+            return ResponseEntity.status(record.getStatusCode())
+                .header(REPLAYED_HEADER, "true")
+                .body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored response", e);
+        }
+    }
+
+    // Wait on the local latch if the request runs here, otherwise poll (it runs on another instance)
+    private void waitForInFlight(String key, long remainingMillis) {
+        try {
+            CountDownLatch latch = inFlight.get(key);
+            if (latch != null) {
+                latch.await(remainingMillis, TimeUnit.MILLISECONDS);
+            } else {
+                Thread.sleep(Math.min(remainingMillis, POLL_INTERVAL_MILLIS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(
+                "Interrupted while waiting for Idempotency-Key " + key);
+        }
+    }
+}
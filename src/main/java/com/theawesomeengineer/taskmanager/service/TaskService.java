@@ -1,13 +1,33 @@
 package com.theawesomeengineer.taskmanager.service;
 
+import com.theawesomeengineer.taskmanager.archive.TaskArchive;
 import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
 import com.theawesomeengineer.taskmanager.exception.TaskNotFoundException;
+import com.theawesomeengineer.taskmanager.history.RevisionRecord;
+import com.theawesomeengineer.taskmanager.history.RevisionRecorder;
+import com.theawesomeengineer.taskmanager.history.RevisionType;
+import com.theawesomeengineer.taskmanager.reminder.ReminderScheduler;
 import com.theawesomeengineer.taskmanager.repository.TaskRepository;
+import com.theawesomeengineer.taskmanager.warmup.TaskAccessStats;
+import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service class - handles the business logic for tasks
@@ -20,7 +40,23 @@ public class TaskService {
     @Autowired
     private TaskRepository taskRepository;
 
-    // Get all tasks from database
+    // Old completed tasks that were moved out of the database (see TaskArchiver)
+    @Autowired
+    private TaskArchive taskArchive;
+
+    // Remembers which tasks are read most, so they can be pre-loaded after a restart
+    @Autowired
+    private TaskAccessStats taskAccessStats;
+
+    // Keeps a history of every change (written in the background)
+    @Autowired
+    private RevisionRecorder revisionRecorder;
+
+    // Timers for the "due soon" and "overdue" events of tasks with a due date
+    @Autowired
+    private ReminderScheduler reminderScheduler;
+
+    // Get all tasks from database (archived tasks are not included)
     public List<Task> getAllTasks() {
         List<Task> tasks = taskRepository.findAll();
         return tasks;
@@ -31,16 +67,64 @@ public class TaskService {
         // Try to find the task
         Optional<Task> taskOptional = taskRepository.findById(id);
 
+        // Not in the database? It may have been archived
+        if (taskOptional.isEmpty()) {
+            taskOptional = taskArchive.find(id);
+        }
+
         // If task exists, return it. Otherwise throw error
         if (taskOptional.isPresent()) {
+            taskAccessStats.recordAccess(id);
             return taskOptional.get();
         } else {
             throw new TaskNotFoundException("Task with ID " + id + " not found");
         }
     }
 
+    // Get many tasks at once. The result has one entry per requested ID, in the same order,
+    // and the entry is empty when that task doesn't exist (instead of failing the whole call).
+    public List<Optional<Task>> getTasksByIds(List<Long> ids) {
+        // Each ID only once - the repository loads them with a few "in" queries (cached tasks need none)
+        Set<Long> distinctIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                distinctIds.add(id);
+            }
+        }
+        Map<Long, Task> tasksById = new HashMap<>();
+        for (Task task : taskRepository.findAllById(new ArrayList<>(distinctIds))) {
+            tasksById.put(task.getId(), task);
+        }
+
+        // Not in the database? They may have been archived
+        for (Long id : distinctIds) {
+            if (!tasksById.containsKey(id)) {
+                taskArchive.find(id).ifPresent(task -> tasksById.put(id, task));
+            }
+        }
+
+        List<Optional<Task>> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Task task = id != null ? tasksById.get(id) : null;
+            if (task != null) {
+                taskAccessStats.recordAccess(id);
+            }
+            results.add(Optional.ofNullable(task));
+        }
+        return results;
+    }
+
+    // Get open tasks due within the next few minutes (overdue ones too), most important first
+    public List<Task> getDueSoonTasks(int withinMinutes, int limit) {
+        LocalDateTime until = LocalDateTime.now(ZoneOffset.UTC).plusMinutes(withinMinutes);
+        Sort order = Sort.by(Sort.Order.desc("priority"), Sort.Order.asc("dueAt"));
+        // One page of at most limit tasks (with several shards, ShardRoutingInterceptor cuts the merged list to it)
+        return taskRepository.findByCompletedFalseAndDueAtBefore(until, PageRequest.of(0, limit, order));
+    }
+
     // Create a new task
-    public Task createTask(String title, String description, Boolean completed) {
+    public Task createTask(String title, String description, Boolean completed,
+                           LocalDateTime dueAt, TaskPriority priority) {
         // Create new task object
         Task newTask = new Task();
         newTask.setTitle(title);
@@ -53,13 +137,22 @@ public class TaskService {
             newTask.setCompleted(false);
         }
 
+        // Due date is optional, priority defaults to MEDIUM
+        newTask.setDueAt(dueAt);
+        newTask.setPriority(priority != null ? priority : TaskPriority.MEDIUM);
+
         // Save to database and return
         Task savedTask = taskRepository.save(newTask);
+        revisionRecorder.record(RevisionType.CREATED, savedTask);
+        reminderScheduler.taskSaved(savedTask);
         return savedTask;
     }
 
     // Update an existing task
-    public Task updateTask(Long id, String title, String description, Boolean completed) {
+    // (an archived task is saved back into the database, and the newer copy there wins from then on)
+    // (every field is replaced - no due date in the request removes it, no priority means MEDIUM)
+    public Task updateTask(Long id, String title, String description, Boolean completed,
+                           LocalDateTime dueAt, TaskPriority priority) {
         // First, find the existing task
         Task existingTask = getTaskById(id);
 
@@ -67,22 +160,92 @@ public class TaskService {
         existingTask.setTitle(title);
         existingTask.setDescription(description);
         existingTask.setCompleted(completed);
+        existingTask.setDueAt(dueAt);
+        existingTask.setPriority(priority != null ? priority : TaskPriority.MEDIUM);
 
         // Save updated task to database
         Task updatedTask = taskRepository.save(existingTask);
+        revisionRecorder.record(RevisionType.UPDATED, updatedTask);
+        reminderScheduler.taskSaved(updatedTask);
         return updatedTask;
     }
 
+    // Change only the fields that were given (null = leave as it is)
+    // dueAt can also be removed, so it has three states: undefined = leave it, null = remove it, a value = set it
+    public Task patchTask(Long id, String title, String description, Boolean completed,
+                          JsonNullable<LocalDateTime> dueAt, TaskPriority priority) {
+        // First, find the existing task
+        Task existingTask = getTaskById(id);
+
+        // Only touch fields that were sent and are actually different
+        boolean changed = false;
+        if (title != null && !title.equals(existingTask.getTitle())) {
+            existingTask.setTitle(title);
+            changed = true;
+        }
+        if (description != null && !description.equals(existingTask.getDescription())) {
+            existingTask.setDescription(description);
+            changed = true;
+        }
+        if (completed != null && !completed.equals(existingTask.getCompleted())) {
+            existingTask.setCompleted(completed);
+            changed = true;
+        }
+        if (dueAt.isPresent() && !Objects.equals(dueAt.get(), existingTask.getDueAt())) {
+            existingTask.setDueAt(dueAt.get());
+            changed = true;
+        }
+        if (priority != null && priority != existingTask.getPriority()) {
+            existingTask.setPriority(priority);
+            changed = true;
+        }
+
+        // Nothing to change - don't write to the database at all
+        if (!changed) {
+            return existingTask;
+        }
+
+        // Task uses @DynamicUpdate, so the UPDATE only sets the changed columns (and updated_at)
+        Task patchedTask = taskRepository.save(existingTask);
+        revisionRecorder.record(RevisionType.UPDATED, patchedTask);
+        reminderScheduler.taskSaved(patchedTask);
+        return patchedTask;
+    }
+
     // Delete a task
     public void deleteTask(Long id) {
-        // Check if task exists first
+        // Check if task exists first - in the database, the archive, or both
         boolean exists = taskRepository.existsById(id);
+        boolean archived = taskArchive.contains(id);
 
-        if (!exists) {
+        if (!exists && !archived) {
             throw new TaskNotFoundException("Task with ID " + id + " not found");
         }
 
         // Delete the task
-        taskRepository.deleteById(id);
+        if (exists) {
+            taskRepository.deleteById(id);
+        }
+        if (archived) {
+            taskArchive.markDeleted(id);
+        }
+        revisionRecorder.recordDelete(id);
+        reminderScheduler.taskDeleted(id);
+    }
+
+    // Get every recorded change of a task, oldest first (also works for deleted tasks)
+    public List<RevisionRecord> getTaskHistory(Long id) {
+        List<RevisionRecord> history;
+        try {
+            history = revisionRecorder.getHistory(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the history of task " + id, e);
+        }
+
+        // No history - fine if the task exists (it is older than history tracking), otherwise 404
+        if (history.isEmpty()) {
+            getTaskById(id);
+        }
+        return history;
     }
 }
@@ -0,0 +1,195 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves tasks between shards after the number of shards changes.
+ *
+ * Every task belongs on shard (bucket % shardCount), where the bucket is part of its ID - except tasks
+ * from before sharding (IDs up to tasks_legacy_max_id), which always stay on shard 0.
+ * This tool walks each shard in ID order and moves every task that isn't where the new layout puts it.
+ * Rows are copied in batches: delete any half-copied rows on the target, insert, commit,
+ * then delete from the source. If it stops half way, just run it again.
+ *
+ * Stop writes (or the app) while it runs, then restart the app with the new shard list.
+ *
+ * Usage: ./gradlew reshard -PreshardArgs="<newShardCount> <jdbcUrl0> <jdbcUrl1> ..."
+ * List every shard that exists before OR after the change, shard 0 first.
+ * Credentials come from -PreshardUsername / -PreshardPassword (system properties resharding.username/password).
+ */
+public class ReshardingTool {
+
+    private static final String TABLE = "tasks";
+    private static final int BATCH_SIZE = 500;
+
+    private final List<DataSource> shards;
+
+    public ReshardingTool(List<DataSource> shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Move every task to its shard for the new shard count. Returns how many tasks were moved.
+     */
+    public long reshard(int newShardCount) throws SQLException {
+        if (newShardCount > shards.size()) {
+            throw new IllegalArgumentException("Need " + newShardCount + " shard databases, got " + shards.size());
+        }
+
+        // Also records the legacy boundary if the app has never run against these databases
+        long legacyMaxId = new TaskIdGenerator(shards, 1).getLegacyMaxId();
+        ShardLayout layout = new ShardLayout(newShardCount, legacyMaxId);
+        long moved = 0;
+        for (int source = 0; source < shards.size(); source++) {
+            moved += moveMisplacedTasks(source, layout);
+        }
+        return moved;
+    }
+
+    private long moveMisplacedTasks(int source, ShardLayout layout) throws SQLException {
+        long moved = 0;
+        long lastId = Long.MIN_VALUE;
+
+        // Walk the shard in ID order one page at a time, so huge tables never sit in memory
+        while (true) {
+            List<Long> page = readIdPage(shards.get(source), lastId);
+            if (page.isEmpty()) {
+                return moved;
+            }
+            lastId = page.get(page.size() - 1);
+
+            // Tasks on this page that belong somewhere else, grouped by where they belong
+            Map<Integer, List<Long>> idsByTarget = new LinkedHashMap<>();
+            for (long id : page) {
+                int target = layout.shardOf(id);
+                if (target != source) {
+                    idsByTarget.computeIfAbsent(target, shard -> new ArrayList<>()).add(id);
+                }
+            }
+
+            for (Map.Entry<Integer, List<Long>> entry : idsByTarget.entrySet()) {
+                copyRows(source, entry.getKey(), entry.getValue());
+                deleteRows(shards.get(source), entry.getValue());
+                moved += entry.getValue().size();
+            }
+        }
+    }
+
+    // The next BATCH_SIZE task IDs after lastId
+    private List<Long> readIdPage(DataSource dataSource, long lastId) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement(
+                 "SELECT id FROM " + TABLE + " WHERE id > ? ORDER BY id LIMIT " + BATCH_SIZE)) {
+            select.setLong(1, lastId);
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Copy rows with all their columns from one shard to another, in one transaction on the target
+    private void copyRows(int source, int target, List<Long> ids) throws SQLException {
+        try (Connection from = shards.get(source).getConnection();
+             Connection to = shards.get(target).getConnection()) {
+            to.setAutoCommit(false);
+            try {
+                // Rows left behind by an earlier run that stopped half way
+                deleteRows(to, ids);
+
+                try (PreparedStatement select = from.prepareStatement(
+                        "SELECT * FROM " + TABLE + " WHERE id IN (" + placeholders(ids.size()) + ")")) {
+                    bindIds(select, ids);
+                    try (ResultSet rows = select.executeQuery()) {
+                        insertRows(to, rows);
+                    }
+                }
+                to.commit();
+            } catch (SQLException e) {
+                to.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void insertRows(Connection to, ResultSet rows) throws SQLException {
+        ResultSetMetaData metaData = rows.getMetaData();
+        int columnCount = metaData.getColumnCount();
+
+        List<String> columns = new ArrayList<>();
+        for (int column = 1; column <= columnCount; column++) {
+            columns.add(metaData.getColumnName(column));
+        }
+
+        String sql = "INSERT INTO " + TABLE + " (" + String.join(", ", columns) + ") VALUES ("
+            + placeholders(columnCount) + ")";
+        try (PreparedStatement insert = to.prepareStatement(sql)) {
+            while (rows.next()) {
+                for (int column = 1; column <= columnCount; column++) {
+                    insert.setObject(column, rows.getObject(column));
+                }
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void deleteRows(DataSource dataSource, List<Long> ids) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            deleteRows(connection, ids);
+        }
+    }
+
+    private void deleteRows(Connection connection, List<Long> ids) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(
+                "DELETE FROM " + TABLE + " WHERE id IN (" + placeholders(ids.size()) + ")")) {
+            bindIds(delete, ids);
+            delete.executeUpdate();
+        }
+    }
+
+    private static void bindIds(PreparedStatement statement, List<Long> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            statement.setLong(i + 1, ids.get(i));
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 2) {
+            System.err.println("Usage: ReshardingTool <newShardCount> <jdbcUrl0> [<jdbcUrl1> ...]");
+            System.exit(1);
+        }
+
+        int newShardCount = Integer.parseInt(args[0]);
+        String username = System.getProperty("resharding.username", "");
+        String password = System.getProperty("resharding.password", "");
+
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shards.add(new DriverManagerDataSource(args[i], username, password));
+        }
+
+        long moved = new ReshardingTool(shards).reshard(newShardCount);
+        System.out.println("Moved " + moved + " tasks to match " + newShardCount + " shards");
+    }
+}
@@ -0,0 +1,25 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+/**
+ * Remembers which shard the current thread is talking to.
+ * ShardRoutingDataSource reads it to pick a database; when nothing is set, shard 0 is used.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static void set(int shard) {
+        CURRENT.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,60 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+/**
+ * Decides which shard a task lives on, based only on its ID.
+ *
+ * A task ID is (sequence << 10) | bucket, where bucket = sequence % 1024.
+ * The bucket is a "virtual shard" encoded in the ID itself, and each bucket belongs to
+ * physical shard (bucket % shardCount). Because the bucket never changes, changing the
+ * shard count only means moving the rows whose bucket now maps elsewhere (see ReshardingTool).
+ *
+ * Tasks created before sharding have plain AUTO_INCREMENT IDs whose low bits mean nothing.
+ * They all live on shard 0 and stay there: every ID up to legacyMaxId is routed to shard 0.
+ * (New IDs are always bigger, see TaskIdGenerator.)
+ */
+public class ShardLayout {
+
+    public static final int BUCKET_BITS = 10;
+    public static final int BUCKET_COUNT = 1 << BUCKET_BITS;
+
+    private final int shardCount;
+
+    // Highest task ID that existed before sharding (0 if there were none)
+    private final long legacyMaxId;
+
+    public ShardLayout(int shardCount) {
+        this(shardCount, 0);
+    }
+
+    public ShardLayout(int shardCount, long legacyMaxId) {
+        if (shardCount < 1 || shardCount > BUCKET_COUNT) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + BUCKET_COUNT);
+        }
+        this.shardCount = shardCount;
+        this.legacyMaxId = legacyMaxId;
+    }
+
+    // Turn a sequence number into a task ID with its bucket in the low bits
+    public static long encode(long sequence) {
+        return (sequence << BUCKET_BITS) | (sequence & (BUCKET_COUNT - 1));
+    }
+
+    public static int bucketOf(long id) {
+        return (int) (id & (BUCKET_COUNT - 1));
+    }
+
+    public int shardOf(long id) {
+        if (id <= legacyMaxId) {
+            return 0;
+        }
+        return bucketOf(id) % shardCount;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public long getLegacyMaxId() {
+        return legacyMaxId;
+    }
+}
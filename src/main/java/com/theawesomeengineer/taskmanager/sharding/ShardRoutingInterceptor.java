@@ -0,0 +1,432 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.reminder.TaskDueDate;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Sits in front of TaskRepository (before its transaction starts) and sends each call to the right shard.
+ *
+ * Only the repository methods listed in the constructor are routed, each with its own way of
+ * splitting the call and merging the results:
+ * - save(task) / delete(task): new tasks get their ID here, then the ID picks the shard
+ * - findById, existsById, deleteById: the ID picks the shard
+ * - saveAll, findAllById, deleteArchived: the IDs are split per shard, run in parallel
+ * - findAll, count, deleteAll: run on every shard in parallel, then combined
+ * - the paged finder queries: run on every shard, merged in the Pageable's order, then cut to the page
+ * Methods declared in TaskRepository itself must have a route, or the app fails to start
+ * (see checkRoutes). Any other Spring Data method throws UnsupportedOperationException
+ * when there is more than one shard, instead of guessing how to merge its result.
+ *
+ * Each call runs in its own transaction on its shard, so with more than one shard TaskRepository
+ * must not be called inside a surrounding @Transactional method. With a single shard every call
+ * just goes to shard 0, exactly like a plain repository.
+ */
+public class ShardRoutingInterceptor implements MethodInterceptor {
+
+    // The properties tasks and due dates can be sorted by when shard results are merged
+    private static final Map<String, Function<Task, Comparable<?>>> TASK_PROPERTIES = Map.of(
+        "id", Task::getId,
+        "title", Task::getTitle,
+        "completed", Task::getCompleted,
+        "dueAt", Task::getDueAt,
+        "priority", Task::getPriority,
+        "createdAt", Task::getCreatedAt,
+        "updatedAt", Task::getUpdatedAt);
+
+    private static final Map<String, Function<TaskDueDate, Comparable<?>>> DUE_DATE_PROPERTIES = Map.of(
+        "id", TaskDueDate::getId,
+        "dueAt", TaskDueDate::getDueAt);
+
+    /**
+     * How one repository method is sent to the shards and how the results are put back together.
+     */
+    private interface Route {
+        Object invoke(MethodInvocation invocation) throws Throwable;
+    }
+
+    private final ShardLayout shardLayout;
+    private final TaskIdGenerator taskIdGenerator;
+    private final ExecutorService executor;
+
+    // Method signature (like "findById(Object)") -> its route
+    private final Map<String, Route> routes = new HashMap<>();
+
+    public ShardRoutingInterceptor(ShardLayout shardLayout, TaskIdGenerator taskIdGenerator) {
+        this.shardLayout = shardLayout;
+        this.taskIdGenerator = taskIdGenerator;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(2, shardLayout.getShardCount() * 2), runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // One task - its ID picks the shard
+        routes.put("save(Object)", invocation -> {
+            Task task = (Task) invocation.getArguments()[0];
+            assignId(task);
+            return runOnShard(shardLayout.shardOf(task.getId()), invocation);
+        });
+        routes.put("delete(Object)", invocation ->
+            runOnShard(shardLayout.shardOf(((Task) invocation.getArguments()[0]).getId()), invocation));
+
+        // One ID - it picks the shard
+        Route byId = invocation -> runOnShard(shardLayout.shardOf((Long) invocation.getArguments()[0]), invocation);
+        routes.put("findById(Object)", byId);
+        routes.put("existsById(Object)", byId);
+        routes.put("deleteById(Object)", byId);
+
+        // Several tasks or IDs - split them per shard
+        routes.put("saveAll(Iterable)", this::saveAll);
+        routes.put("findAllById(Iterable)", invocation ->
+            sortedById(concat(gather(invocation, splitByShard(invocation.getArguments()))), Task::getId));
+        routes.put("deleteArchived(Collection,LocalDateTime)", invocation ->
+            (int) sum(gather(invocation, splitByShard(invocation.getArguments()))));
+
+        // No shard key - ask every shard
+        routes.put("findAll()", invocation -> sortedById(concat(gather(invocation, everyShard(invocation))), Task::getId));
+        routes.put("count()", invocation -> sum(gather(invocation, everyShard(invocation))));
+        routes.put("deleteAll()", invocation -> {
+            gather(invocation, everyShard(invocation));
+            return null;
+        });
+
+        // Paged queries - merged in the order of their Pageable
+        routes.put("findAllBy(Pageable)",
+            invocation -> pagedQuery(invocation, 0, TASK_PROPERTIES, Task::getId));
+        routes.put("findByCompletedTrueAndUpdatedAtBefore(LocalDateTime,Pageable)",
+            invocation -> pagedQuery(invocation, 1, TASK_PROPERTIES, Task::getId));
+        routes.put("findByCompletedFalseAndDueAtBefore(LocalDateTime,Pageable)",
+            invocation -> pagedQuery(invocation, 1, TASK_PROPERTIES, Task::getId));
+        routes.put("findDueDates(LocalDateTime,Long,Pageable)",
+            invocation -> pagedQuery(invocation, 2, DUE_DATE_PROPERTIES, TaskDueDate::getId));
+    }
+
+    /**
+     * Fail at startup if the repository declares a method we don't know how to route.
+     * Inherited Spring Data methods are checked when they are called instead, because
+     * JpaRepository has many that the app never uses.
+     */
+    public void checkRoutes(Class<?> repositoryInterface) {
+        for (Method method : repositoryInterface.getMethods()) {
+            boolean ourMethod = !method.getDeclaringClass().getName().startsWith("org.springframework.");
+            if (ourMethod && !routes.containsKey(signature(method))) {
+                throw new UnsupportedOperationException(repositoryInterface.getSimpleName() + "." + signature(method)
+                    + " has no shard route - add one to ShardRoutingInterceptor");
+            }
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+
+        // Already on a shard (we are a scatter-gather worker, or a nested call), or toString() and friends
+        if (ShardContext.current() != null || method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+
+        Route route = routes.get(signature(method));
+
+        if (shardLayout.getShardCount() == 1) {
+            // Tasks still need an ID from TaskIdGenerator before they are saved
+            if (route != null && method.getName().startsWith("save")) {
+                return route.invoke(invocation);
+            }
+            return runOnShard(0, invocation);
+        }
+
+        if (route == null) {
+            throw new UnsupportedOperationException("TaskRepository." + signature(method)
+                + " is not supported with more than one shard - add a route to ShardRoutingInterceptor");
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("TaskRepository." + method.getName()
+                + " was called inside a transaction, but with sharding every call needs its own transaction");
+        }
+        return route.invoke(invocation);
+    }
+
+    // Stop the worker threads on shutdown
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void assignId(Task task) {
+        if (task.getId() == null) {
+            task.setId(taskIdGenerator.nextId());
+        }
+    }
+
+    // saveAll: give every new task its ID, save each shard's tasks there, and return them in the order given
+    private Object saveAll(MethodInvocation invocation) throws Throwable {
+        List<Long> order = new ArrayList<>();
+        for (Object item : (Iterable<?>) invocation.getArguments()[0]) {
+            Task task = (Task) item;
+            assignId(task);
+            order.add(task.getId());
+        }
+
+        if (shardLayout.getShardCount() == 1) {
+            return runOnShard(0, invocation);
+        }
+
+        Map<Long, Object> savedById = new HashMap<>();
+        for (Object saved : concat(gather(invocation, splitByShard(invocation.getArguments())))) {
+            savedById.put(((Task) saved).getId(), saved);
+        }
+        List<Object> saved = new ArrayList<>(order.size());
+        for (Long id : order) {
+            saved.add(savedById.get(id));
+        }
+        return saved;
+    }
+
+    /**
+     * Run a paged query on every shard and merge the results.
+     * Each shard is asked for everything up to the end of the requested page (from page 0, in the
+     * same order), so the merged list holds the right rows for pages after the first one too.
+     */
+    private <T> Object pagedQuery(MethodInvocation invocation, int pageableIndex,
+                                  Map<String, Function<T, Comparable<?>>> properties,
+                                  Function<T, Long> id) throws Throwable {
+        Pageable pageable = (Pageable) invocation.getArguments()[pageableIndex];
+        Comparator<T> comparator = comparatorFor(pageable.getSort(), properties, id);
+
+        // The shards sort ties by ID too, so each of their lists is in the same order as the merge
+        Sort shardSort = pageable.getSort();
+        if (shardSort.getOrderFor("id") == null) {
+            shardSort = shardSort.and(Sort.by("id"));
+        }
+
+        Object[] arguments = invocation.getArguments().clone();
+        long offset = 0;
+        int pageSize = Integer.MAX_VALUE;
+        if (pageable.isPaged()) {
+            offset = pageable.getOffset();
+            pageSize = pageable.getPageSize();
+            arguments[pageableIndex] = PageRequest.of(0, Math.toIntExact(offset + pageSize), shardSort);
+        } else {
+            arguments[pageableIndex] = Pageable.unpaged(shardSort);
+        }
+
+        Map<Integer, Object[]> argumentsByShard = new LinkedHashMap<>();
+        for (int shard = 0; shard < shardLayout.getShardCount(); shard++) {
+            argumentsByShard.put(shard, arguments);
+        }
+
+        List<T> merged = mergeSorted(gather(invocation, argumentsByShard), comparator);
+        int from = (int) Math.min(offset, merged.size());
+        int to = (int) Math.min(offset + (long) pageSize, merged.size());
+        return new ArrayList<>(merged.subList(from, to));
+    }
+
+    private Map<Integer, Object[]> everyShard(MethodInvocation invocation) {
+        Map<Integer, Object[]> argumentsByShard = new LinkedHashMap<>();
+        for (int shard = 0; shard < shardLayout.getShardCount(); shard++) {
+            argumentsByShard.put(shard, invocation.getArguments());
+        }
+        return argumentsByShard;
+    }
+
+    // Group the tasks or IDs in the first argument by shard. The other arguments are the same for every shard.
+    private Map<Integer, Object[]> splitByShard(Object[] arguments) {
+        Map<Integer, List<Object>> itemsByShard = new LinkedHashMap<>();
+        for (Object item : (Iterable<?>) arguments[0]) {
+            long id = item instanceof Task task ? task.getId() : (Long) item;
+            itemsByShard.computeIfAbsent(shardLayout.shardOf(id), shard -> new ArrayList<>()).add(item);
+        }
+
+        Map<Integer, Object[]> argumentsByShard = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Object>> entry : itemsByShard.entrySet()) {
+            Object[] shardArguments = arguments.clone();
+            shardArguments[0] = entry.getValue();
+            argumentsByShard.put(entry.getKey(), shardArguments);
+        }
+        return argumentsByShard;
+    }
+
+    private Object runOnShard(int shard, MethodInvocation invocation) throws Throwable {
+        ShardContext.set(shard);
+        try {
+            return invocation.proceed();
+        } finally {
+            ShardContext.clear();
+        }
+    }
+
+    // Run the call on several shards in parallel (each with its own arguments) and return what each one returned
+    private List<Object> gather(MethodInvocation invocation, Map<Integer, Object[]> argumentsByShard) throws Throwable {
+        ProxyMethodInvocation proxyInvocation = (ProxyMethodInvocation) invocation;
+        List<Object> results = new ArrayList<>();
+
+        // Nothing to spread out - don't bother with another thread
+        if (argumentsByShard.size() == 1) {
+            Map.Entry<Integer, Object[]> only = argumentsByShard.entrySet().iterator().next();
+            results.add(runOnShard(only.getKey(), proxyInvocation.invocableClone(only.getValue())));
+            return results;
+        }
+
+        List<Future<Object>> futures = new ArrayList<>();
+        for (Map.Entry<Integer, Object[]> entry : argumentsByShard.entrySet()) {
+            int shard = entry.getKey();
+            MethodInvocation shardInvocation = proxyInvocation.invocableClone(entry.getValue());
+            futures.add(executor.submit(() -> runOnShardUnchecked(shard, shardInvocation)));
+        }
+
+        for (Future<Object> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof ShardCallException ? cause.getCause() : cause;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    private Object runOnShardUnchecked(int shard, MethodInvocation invocation) {
+        try {
+            return runOnShard(shard, invocation);
+        } catch (Throwable e) {
+            throw new ShardCallException(e);
+        }
+    }
+
+    // All the lists the shards returned, one after the other
+    private static List<Object> concat(List<Object> results) {
+        List<Object> all = new ArrayList<>();
+        for (Object result : results) {
+            all.addAll((Collection<?>) result);
+        }
+        return all;
+    }
+
+    private static <T> List<Object> sortedById(List<Object> items, Function<T, Long> id) {
+        @SuppressWarnings("unchecked")
+        Comparator<Object> byId = Comparator.comparing(item -> id.apply((T) item));
+        items.sort(byId);
+        return items;
+    }
+
+    private static long sum(List<Object> results) {
+        long total = 0;
+        for (Object result : results) {
+            total += ((Number) result).longValue();
+        }
+        return total;
+    }
+
+    // k-way merge of the per-shard lists, each already sorted by the query
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> mergeSorted(List<Object> results, Comparator<T> comparator) {
+        List<List<T>> lists = new ArrayList<>();
+        int total = 0;
+        for (Object result : results) {
+            List<T> list = (List<T>) result;
+            lists.add(list);
+            total += list.size();
+        }
+
+        // Each entry is {list index, position in that list}, ordered by the item at that position
+        PriorityQueue<int[]> heads = new PriorityQueue<>(
+            (left, right) -> comparator.compare(lists.get(left[0]).get(left[1]), lists.get(right[0]).get(right[1])));
+        for (int i = 0; i < lists.size(); i++) {
+            if (!lists.get(i).isEmpty()) {
+                heads.add(new int[] {i, 0});
+            }
+        }
+
+        List<T> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<T> list = lists.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (head[1] + 1 < list.size()) {
+                heads.add(new int[] {head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    // Order by the Sort, then by ID. Built once per call from the known properties.
+    private static <T> Comparator<T> comparatorFor(Sort sort, Map<String, Function<T, Comparable<?>>> properties,
+                                                   Function<T, Long> id) {
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            Function<T, Comparable<?>> property = properties.get(order.getProperty());
+            if (property == null) {
+                throw new UnsupportedOperationException("Shard results can't be merged by " + order.getProperty());
+            }
+            // Without NULLS FIRST / LAST, do what MySQL does: NULL is smaller than any value
+            boolean nullsFirst = switch (order.getNullHandling()) {
+                case NULLS_FIRST -> true;
+                case NULLS_LAST -> false;
+                case NATIVE -> order.isAscending();
+            };
+            boolean descending = order.isDescending();
+            Comparator<T> next = (left, right) ->
+                compareValues(property.apply(left), property.apply(right), descending, nullsFirst);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+
+        Comparator<T> byId = Comparator.comparing(id);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    // Nulls go first or last whatever the direction, like in SQL
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Comparable left, Comparable right, boolean descending, boolean nullsFirst) {
+        if (left == null || right == null) {
+            if (left == right) {
+                return 0;
+            }
+            return (left == null) == nullsFirst ? -1 : 1;
+        }
+        int result = left.compareTo(right);
+        return descending ? -result : result;
+    }
+
+    // "findById(Object)" - the method name and its parameter types
+    private static String signature(Method method) {
+        List<String> parameterTypes = new ArrayList<>();
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            parameterTypes.add(parameterType.getSimpleName());
+        }
+        return method.getName() + "(" + String.join(",", parameterTypes) + ")";
+    }
+
+    // Carries any Throwable (even checked ones) out of a worker thread
+    private static class ShardCallException extends RuntimeException {
+        ShardCallException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
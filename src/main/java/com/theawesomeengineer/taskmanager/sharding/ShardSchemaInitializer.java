@@ -0,0 +1,70 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaUpdate;
+import org.hibernate.tool.schema.TargetType;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import java.util.EnumSet;
+
+/**
+ * Hibernate only creates/updates the schema on the default database (shard 0).
+ * This keeps the mapping Hibernate built at startup and, once the app is up,
+ * runs a schema update against every other shard so they get the same tables.
+ */
+public class ShardSchemaInitializer implements Integrator, SmartInitializingSingleton {
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final ShardLayout shardLayout;
+    private final String ddlAuto;
+
+    // Captured while Hibernate starts up
+    private volatile Metadata metadata;
+
+    public ShardSchemaInitializer(ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                  ShardLayout shardLayout, String ddlAuto) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.shardLayout = shardLayout;
+        this.ddlAuto = ddlAuto;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        // Nothing to clean up
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Only touch the schema when Hibernate is allowed to (ddl-auto update/create/create-drop)
+        if (shardLayout.getShardCount() == 1 || metadata == null
+                || "none".equals(ddlAuto) || "validate".equals(ddlAuto)) {
+            return;
+        }
+
+        SessionFactoryImplementor sessionFactory =
+            entityManagerFactory.getObject().unwrap(SessionFactoryImplementor.class);
+
+        for (int shard = 1; shard < shardLayout.getShardCount(); shard++) {
+            ShardContext.set(shard);
+            try {
+                SchemaUpdate schemaUpdate = new SchemaUpdate();
+                schemaUpdate.setHaltOnError(true);
+                schemaUpdate.execute(EnumSet.of(TargetType.DATABASE), metadata, sessionFactory.getServiceRegistry());
+            } finally {
+                ShardContext.clear();
+            }
+        }
+    }
+}
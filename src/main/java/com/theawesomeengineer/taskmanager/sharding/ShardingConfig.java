@@ -0,0 +1,129 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wires up sharding of the tasks table:
+ * - one DataSource per shard behind a ShardRoutingDataSource
+ * - globally unique task IDs that encode their shard
+ * - the interceptor that routes TaskRepository calls
+ * With no additional shards configured this is a single shard and behaves like a plain DataSource.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "close")
+    @Primary
+    public ShardRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                             ShardingProperties shardingProperties) {
+        List<DataSource> shards = new ArrayList<>();
+
+        // Shard 0 is the normal spring.datasource database
+        shards.add(dataSourceProperties.initializeDataSourceBuilder().build());
+
+        for (ShardingProperties.Shard shard : shardingProperties.getAdditionalShards()) {
+            String driverClassName = shard.getDriverClassName() != null
+                ? shard.getDriverClassName()
+                : dataSourceProperties.getDriverClassName();
+            shards.add(DataSourceBuilder.create()
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .driverClassName(driverClassName)
+                .build());
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    // Reads (or on first start records) which task IDs are from before sharding, so they stay on shard 0
+    @Bean
+    public ShardLayout shardLayout(ShardRoutingDataSource dataSource, TaskIdGenerator taskIdGenerator) {
+        return new ShardLayout(dataSource.getShardCount(), taskIdGenerator.getLegacyMaxId());
+    }
+
+    @Bean
+    public TaskIdGenerator taskIdGenerator(ShardRoutingDataSource dataSource, ShardingProperties shardingProperties) {
+        return new TaskIdGenerator(dataSource.getShards(), shardingProperties.getIdBlockSize());
+    }
+
+    /**
+     * With more than one shard, open-in-view must be off: it keeps one EntityManager (and the connection
+     * of whichever shard it used first) for the whole web request, so later calls would hit the wrong shard.
+     * With a single shard nothing changes - Spring Boot's default applies.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ShardRoutingInterceptor shardRoutingInterceptor(ShardLayout shardLayout, TaskIdGenerator taskIdGenerator,
+                                                           @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (shardLayout.getShardCount() > 1 && openInView) {
+            throw new IllegalStateException("Set spring.jpa.open-in-view=false when more than one shard is configured");
+        }
+        return new ShardRoutingInterceptor(shardLayout, taskIdGenerator);
+    }
+
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                                         ShardLayout shardLayout,
+                                                         @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return new ShardSchemaInitializer(entityManagerFactory, shardLayout, ddlAuto);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardingHibernateProperties(ShardLayout shardLayout,
+                                                                     ShardSchemaInitializer shardSchemaInitializer) {
+        return properties -> {
+            // Lets ShardSchemaInitializer see the mapping Hibernate builds
+            properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(shardSchemaInitializer));
+
+            // The query cache key doesn't include the shard, so one shard's cached findAll
+            // would be returned for another. Entity caching is fine: task IDs are globally unique.
+            if (shardLayout.getShardCount() > 1) {
+                properties.put("hibernate.cache.use_query_cache", "false");
+            }
+        };
+    }
+
+    /**
+     * Put ShardRoutingInterceptor in front of every other advice on the TaskRepository proxy,
+     * so the shard is chosen before Spring Data opens a transaction (and a connection).
+     * Startup fails here if TaskRepository has a method the interceptor can't route.
+     * Static because BeanPostProcessors are created before normal beans.
+     */
+    @Bean
+    public static BeanPostProcessor taskRepositoryShardRouting(ObjectProvider<ShardRoutingInterceptor> interceptor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory ->
+                        factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+                            if (repositoryInformation.getDomainType() == Task.class) {
+                                ShardRoutingInterceptor routing = interceptor.getObject();
+                                routing.checkRoutes(repositoryInformation.getRepositoryInterface());
+                                proxyFactory.addAdvice(0, routing);
+                            }
+                        }));
+                }
+                return bean;
+            }
+        };
+    }
+}
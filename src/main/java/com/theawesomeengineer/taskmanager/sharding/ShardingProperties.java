@@ -0,0 +1,84 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharding settings from application.properties.
+ * Shard 0 is always spring.datasource. Every entry in additional-shards adds one more:
+ *
+ *   taskmanager.sharding.additional-shards[0].url=jdbc:mysql://db-2:3306/taskmanager
+ *   taskmanager.sharding.additional-shards[0].username=taskmanager_user
+ *   taskmanager.sharding.additional-shards[0].password=taskmanager_password
+ */
+@ConfigurationProperties(prefix = "taskmanager.sharding")
+public class ShardingProperties {
+
+    // How many task IDs one instance reserves at a time
+    private int idBlockSize = 100;
+
+    private List<Shard> additionalShards = new ArrayList<>();
+
+    public int getIdBlockSize() {
+        return idBlockSize;
+    }
+
+    public void setIdBlockSize(int idBlockSize) {
+        this.idBlockSize = idBlockSize;
+    }
+
+    public List<Shard> getAdditionalShards() {
+        return additionalShards;
+    }
+
+    public void setAdditionalShards(List<Shard> additionalShards) {
+        this.additionalShards = additionalShards;
+    }
+
+    /**
+     * Connection settings for one extra shard database.
+     */
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+
+        // Defaults to spring.datasource.driver-class-name
+        private String driverClassName;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getDriverClassName() {
+            return driverClassName;
+        }
+
+        public void setDriverClassName(String driverClassName) {
+            this.driverClassName = driverClassName;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Hands out globally unique task IDs (replaces the database's AUTO_INCREMENT, which is per shard).
+ *
+ * Sequence numbers are reserved in blocks from the task_id_allocator table on shard 0,
+ * so most IDs cost nothing and all instances share one sequence. Each sequence number is
+ * then turned into an ID that encodes its shard bucket (see ShardLayout).
+ *
+ * When the allocator is first created it also records the highest task ID that already exists
+ * (tasks_legacy_max_id). Those older tasks were created with AUTO_INCREMENT on shard 0 and stay there.
+ */
+public class TaskIdGenerator {
+
+    private static final String SEQUENCE_NAME = "tasks";
+    private static final String LEGACY_MAX_ID_NAME = "tasks_legacy_max_id";
+
+    private final List<DataSource> shards;
+    private final int blockSize;
+
+    // Current block: next sequence to hand out, and the first one we don't own
+    private long next;
+    private long limit;
+    private boolean initialized;
+
+    public TaskIdGenerator(List<DataSource> shards, int blockSize) {
+        this.shards = shards;
+        this.blockSize = blockSize;
+    }
+
+    public synchronized long nextId() {
+        if (next >= limit) {
+            allocateBlock();
+        }
+        return ShardLayout.encode(next++);
+    }
+
+    /**
+     * The highest task ID that existed before sharding - every ID up to it lives on shard 0.
+     * Creates the allocator first if it doesn't exist yet.
+     */
+    public synchronized long getLegacyMaxId() {
+        try (Connection connection = shards.get(0).getConnection()) {
+            initialize(connection);
+            Long legacyMaxId = readValue(connection, LEGACY_MAX_ID_NAME);
+            return legacyMaxId != null ? legacyMaxId : 0;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the legacy task ID boundary", e);
+        }
+    }
+
+    // Reserve the next block of sequence numbers in one short transaction
+    private void allocateBlock() {
+        try (Connection connection = shards.get(0).getConnection()) {
+            initialize(connection);
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement update = connection.prepareStatement(
+                    "UPDATE task_id_allocator SET next_value = next_value + ? WHERE name = ?");
+                 PreparedStatement select = connection.prepareStatement(
+                    "SELECT next_value FROM task_id_allocator WHERE name = ?")) {
+
+                update.setLong(1, blockSize);
+                update.setString(2, SEQUENCE_NAME);
+                update.executeUpdate();
+
+                select.setString(1, SEQUENCE_NAME);
+                long end;
+                try (ResultSet resultSet = select.executeQuery()) {
+                    resultSet.next();
+                    end = resultSet.getLong(1);
+                }
+                connection.commit();
+
+                next = end - blockSize;
+                limit = end;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not allocate task IDs", e);
+        }
+    }
+
+    private void initialize(Connection connection) throws SQLException {
+        if (!initialized) {
+            createAllocator(connection);
+            initialized = true;
+        }
+    }
+
+    // Create the allocator table and its rows the first time, starting after any existing task IDs
+    private void createAllocator(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS task_id_allocator ("
+                + "name VARCHAR(64) NOT NULL PRIMARY KEY, next_value BIGINT NOT NULL)");
+        }
+
+        if (readValue(connection, SEQUENCE_NAME) != null) {
+            return;
+        }
+
+        // Tasks created before sharding have plain AUTO_INCREMENT IDs - remember the highest one,
+        // and start the sequence after it so new IDs are always bigger.
+        // The boundary goes in first: once the sequence row exists new IDs can be handed out.
+        long legacyMaxId = highestExistingId();
+        insertValue(connection, LEGACY_MAX_ID_NAME, legacyMaxId);
+        insertValue(connection, SEQUENCE_NAME, (legacyMaxId >> ShardLayout.BUCKET_BITS) + 1);
+    }
+
+    private void insertValue(Connection connection, String name, long value) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO task_id_allocator (name, next_value) VALUES (?, ?)")) {
+            insert.setString(1, name);
+            insert.setLong(2, value);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            // Another instance inserted the row at the same time - that's fine
+            if (readValue(connection, name) == null) {
+                throw e;
+            }
+        }
+    }
+
+    private Long readValue(Connection connection, String name) throws SQLException {
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT next_value FROM task_id_allocator WHERE name = ?")) {
+            select.setString(1, name);
+            try (ResultSet resultSet = select.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : null;
+            }
+        }
+    }
+
+    private long highestExistingId() {
+        long highestId = 0;
+        for (DataSource shard : shards) {
+            try (Connection connection = shard.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT MAX(id) FROM tasks")) {
+                if (resultSet.next()) {
+                    highestId = Math.max(highestId, resultSet.getLong(1));
+                }
+            } catch (SQLException e) {
+                // No tasks table yet on this shard, so no IDs to stay clear of
+            }
+        }
+        return highestId;
+    }
+}
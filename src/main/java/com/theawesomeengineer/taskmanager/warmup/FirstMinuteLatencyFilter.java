@@ -0,0 +1,106 @@
+package com.theawesomeengineer.taskmanager.warmup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how long /tasks requests take during the first minute after the app is ready,
+ * and logs a summary (with the warm-up time) when the minute is over.
+ * Compare runs with taskmanager.warmup.enabled=true and false to see what warm-up buys.
+ */
+@Component
+public class FirstMinuteLatencyFilter extends OncePerRequestFilter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(FirstMinuteLatencyFilter.class);
+
+    private final int windowSeconds;
+    private final TaskScheduler taskScheduler;
+    private final ObjectProvider<WarmupRunner> warmupRunner;
+
+    // Request times in microseconds; requests after the array is full are not recorded
+    private final long[] samples;
+    private final AtomicInteger sampleCount = new AtomicInteger();
+    private volatile boolean recording;
+
+    public FirstMinuteLatencyFilter(@Value("${taskmanager.warmup.report-window-seconds:60}") int windowSeconds,
+                                    @Value("${taskmanager.warmup.report-max-samples:200000}") int maxSamples,
+                                    TaskScheduler taskScheduler,
+                                    ObjectProvider<WarmupRunner> warmupRunner) {
+        this.windowSeconds = windowSeconds;
+        this.taskScheduler = taskScheduler;
+        this.warmupRunner = warmupRunner;
+        this.samples = new long[maxSamples];
+    }
+
+    // The app is ready (warm-up is done) - start the clock
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (windowSeconds <= 0) {
+            return;
+        }
+        recording = true;
+        taskScheduler.schedule(this::report, Instant.now().plusSeconds(windowSeconds));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !recording || !request.getRequestURI().startsWith("/tasks");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int index = sampleCount.getAndIncrement();
+            if (index < samples.length) {
+                samples[index] = (System.nanoTime() - start) / 1_000;
+            }
+        }
+    }
+
+    private void report() {
+        recording = false;
+        int count = Math.min(sampleCount.get(), samples.length);
+        WarmupRunner runner = warmupRunner.getIfAvailable();
+        String warmup = runner != null ? runner.getWarmupMillis() + " ms" : "disabled";
+
+        if (count == 0) {
+            log.info("First {} s after ready: no /tasks requests (warm-up: {})", windowSeconds, warmup);
+            return;
+        }
+
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        log.info("First {} s after ready: {} /tasks requests, p50 {} ms, p90 {} ms, p99 {} ms, max {} ms (warm-up: {})",
+            windowSeconds, count, millis(percentile(sorted, 50)), millis(percentile(sorted, 90)),
+            millis(percentile(sorted, 99)), millis(sorted[count - 1]), warmup);
+    }
+
+    private static long percentile(long[] sorted, double percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+}
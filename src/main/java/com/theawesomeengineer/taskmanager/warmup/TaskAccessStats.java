@@ -0,0 +1,130 @@
+package com.theawesomeengineer.taskmanager.warmup;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each task is read, so the next start can pre-load the most popular ones.
+ * The hottest IDs are written to a file on shutdown and read back by WarmupRunner.
+ */
+@Component
+public class TaskAccessStats {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskAccessStats.class);
+
+    private final Path hotIdsFile;
+    private final int maxTrackedIds;
+    private final int savedIdCount;
+
+    private final Map<Long, LongAdder> readCounts = new ConcurrentHashMap<>();
+
+    public TaskAccessStats(@Value("${taskmanager.warmup.hot-ids-file:data/warmup/hot-task-ids.txt}") String hotIdsFile,
+                           @Value("${taskmanager.warmup.max-tracked-ids:100000}") int maxTrackedIds,
+                           @Value("${taskmanager.warmup.preload-count:1000}") int savedIdCount) {
+        this.hotIdsFile = Paths.get(hotIdsFile);
+        this.maxTrackedIds = maxTrackedIds;
+        this.savedIdCount = savedIdCount;
+    }
+
+    // Called on every task read
+    public void recordAccess(Long id) {
+        LongAdder count = readCounts.get(id);
+        if (count == null) {
+            // Keep memory bounded - once full, only IDs we already track are counted.
+            // Popular tasks are read early anyway, so they are almost always in.
+            if (readCounts.size() >= maxTrackedIds) {
+                return;
+            }
+            count = readCounts.computeIfAbsent(id, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    // The most-read task IDs, most popular first
+    public List<Long> getHottestIds(int limit) {
+        List<Map.Entry<Long, Long>> snapshot = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : readCounts.entrySet()) {
+            snapshot.add(Map.entry(entry.getKey(), entry.getValue().sum()));
+        }
+        snapshot.sort(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < snapshot.size() && i < limit; i++) {
+            ids.add(snapshot.get(i).getKey());
+        }
+        return ids;
+    }
+
+    // Forget everything counted so far (used after warm-up, so its fake reads don't count)
+    public void clear() {
+        readCounts.clear();
+    }
+
+    /**
+     * Read the hot IDs saved by the previous run. Empty if there is no file yet.
+     */
+    public List<Long> loadSavedHotIds() {
+        List<Long> ids = new ArrayList<>();
+        if (!Files.exists(hotIdsFile)) {
+            return ids;
+        }
+        try {
+            for (String line : Files.readAllLines(hotIdsFile, StandardCharsets.UTF_8)) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    ids.add(Long.parseLong(trimmed));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Could not read hot task IDs from {}: {}", hotIdsFile, e.getMessage());
+        }
+        return ids;
+    }
+
+    /**
+     * Save the hottest IDs for the next start (runs automatically on shutdown).
+     */
+    @PreDestroy
+    public void save() {
+        List<Long> hottest = getHottestIds(savedIdCount);
+
+        // Nothing was read (e.g. the app was only up for a moment) - keep the previous file
+        if (hottest.isEmpty()) {
+            return;
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# Most-read task IDs from the last run, most popular first");
+        for (Long id : hottest) {
+            lines.add(String.valueOf(id));
+        }
+
+        try {
+            Path directory = hotIdsFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = directory.resolve(hotIdsFile.getFileName() + ".tmp");
+            Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+            Files.move(temporaryFile, hotIdsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved {} hot task IDs to {}", hottest.size(), hotIdsFile);
+        } catch (IOException e) {
+            log.warn("Could not save hot task IDs to {}: {}", hotIdsFile, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.theawesomeengineer.taskmanager.warmup;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warms the app up after a start, before it reports ready.
+ * Spring Boot only switches readiness to ACCEPTING_TRAFFIC after every ApplicationRunner
+ * has finished, so /actuator/health/readiness stays "OUT_OF_SERVICE" while this runs.
+ *
+ * 1. Pre-load the tasks that were read most in the previous run into the second-level cache
+ *    (no saved hot IDs, e.g. on the very first start? then the first page of tasks by ID)
+ * 2. Send a mix of API calls to ourselves over HTTP until the JIT compiler has little left to compile,
+ *    so real users don't hit slow, unoptimized code
+ *
+ * The warm-up never changes any data: it only reads those tasks, and its creates, updates and
+ * deletes are sent with a body that fails validation or for an ID that can't exist, so they stop
+ * before the database. Other instances see no warm-up rows, history or cache invalidations.
+ */
+@Component
+@ConditionalOnProperty(name = "taskmanager.warmup.enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private static final int PRELOAD_CHUNK_SIZE = 500;
+    private static final int FALLBACK_TASK_COUNT = 100;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskAccessStats taskAccessStats;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${taskmanager.warmup.preload-count:1000}")
+    private int preloadCount;
+
+    // Always warm up at least this long, and never longer than the max
+    @Value("${taskmanager.warmup.min-seconds:5}")
+    private int minSeconds;
+
+    @Value("${taskmanager.warmup.max-seconds:60}")
+    private int maxSeconds;
+
+    // "Settled" = less than settle-compile-millis of JIT compile time in each of settle-windows one-second windows in a row
+    @Value("${taskmanager.warmup.settle-compile-millis:20}")
+    private long settleCompileMillis;
+
+    @Value("${taskmanager.warmup.settle-windows:3}")
+    private int settleWindows;
+
+    private HttpClient httpClient;
+    private String baseUrl;
+    private List<Long> hotIds = List.of();
+
+    // Filled in once warm-up is done - FirstMinuteLatencyFilter puts it in its report
+    private volatile long warmupMillis = -1;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try {
+            int preloaded = preloadHotTasks();
+            int requests = replayUntilCompilationSettles();
+            warmupMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Warm-up finished in {} ms: pre-loaded {} hot tasks, sent {} warm-up requests",
+                warmupMillis, preloaded, requests);
+        } catch (Exception e) {
+            // A failed warm-up must not stop the app from starting
+            warmupMillis = (System.nanoTime() - start) / 1_000_000;
+            log.warn("Warm-up stopped early after {} ms", warmupMillis, e);
+        } finally {
+            // The warm-up's own reads shouldn't count as popular tasks
+            taskAccessStats.clear();
+        }
+    }
+
+    public long getWarmupMillis() {
+        return warmupMillis;
+    }
+
+    // Load last run's most-read tasks, which also puts them in the second-level cache
+    private int preloadHotTasks() {
+        List<Long> savedIds = taskAccessStats.loadSavedHotIds();
+        savedIds = savedIds.subList(0, Math.min(preloadCount, savedIds.size()));
+
+        List<Long> loadedIds = new ArrayList<>();
+        for (int start = 0; start < savedIds.size(); start += PRELOAD_CHUNK_SIZE) {
+            List<Long> chunk = savedIds.subList(start, Math.min(start + PRELOAD_CHUNK_SIZE, savedIds.size()));
+            for (Task task : taskRepository.findAllById(chunk)) {
+                loadedIds.add(task.getId());
+            }
+        }
+
+        // Nothing saved (or all of it deleted since) - warm up with the first tasks by ID instead
+        if (loadedIds.isEmpty()) {
+            for (Task task : taskRepository.findAllBy(PageRequest.of(0, FALLBACK_TASK_COUNT, Sort.by("id")))) {
+                loadedIds.add(task.getId());
+            }
+        }
+
+        // Only IDs that exist, so the reads in every round really find a task
+        hotIds = loadedIds;
+        return loadedIds.size();
+    }
+
+    private int replayUntilCompilationSettles() throws IOException, InterruptedException {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            log.info("No web server running, skipping warm-up requests");
+            return 0;
+        }
+        baseUrl = "http://localhost:" + port;
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean canMeasure = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+
+        long start = System.nanoTime();
+        long windowStart = start;
+        long compileTimeAtWindowStart = canMeasure ? compiler.getTotalCompilationTime() : 0;
+        int quietWindows = 0;
+        int requests = 0;
+        int round = 0;
+
+        while (true) {
+            requests += runRound(round++);
+
+            long now = System.nanoTime();
+            long elapsedSeconds = (now - start) / 1_000_000_000L;
+            if (elapsedSeconds >= maxSeconds) {
+                log.info("Warm-up hit the {} second limit before JIT compilation settled", maxSeconds);
+                break;
+            }
+
+            // Once a second, check how much the JIT compiled in the last window
+            if (now - windowStart >= 1_000_000_000L) {
+                if (canMeasure) {
+                    long compileTime = compiler.getTotalCompilationTime();
+                    quietWindows = compileTime - compileTimeAtWindowStart <= settleCompileMillis ? quietWindows + 1 : 0;
+                    compileTimeAtWindowStart = compileTime;
+                }
+                windowStart = now;
+
+                boolean settled = !canMeasure || quietWindows >= settleWindows;
+                if (settled && elapsedSeconds >= minSeconds) {
+                    break;
+                }
+            }
+        }
+        return requests;
+    }
+
+    // One round of the synthetic mix - read-only, see the class comment
+    private int runRound(int round) throws IOException, InterruptedException {
+        int requests = 0;
+
+        // Reads are the most common call, so do more of them (every hot ID exists, see preloadHotTasks)
+        if (!hotIds.isEmpty()) {
+            for (int i = 0; i < 5; i++) {
+                send("GET", "/tasks/" + hotIds.get((round * 5 + i) % hotIds.size()), null, null);
+                requests++;
+            }
+            send("POST", "/tasks:batchGet", "application/json", "{\"ids\":[" + batchOfHotIds(round) + ",-1]}");
+            send("GET", "/tasks/" + hotIds.get(round % hotIds.size()) + "/history", null, null);
+            requests += 2;
+        }
+
+        send("GET", "/tasks/-1", null, null);
+        send("GET", "/tasks/due-soon", null, null);
+        requests += 2;
+
+        // The write endpoints, up to the point where they give up: no description, or no such task
+        send("POST", "/tasks", "application/json", "{\"title\":\"Warm-up task\"}");
+        send("PATCH", "/tasks/-1", "application/merge-patch+json", "{\"completed\":true}");
+        send("PUT", "/tasks/-1", "application/json",
+            "{\"title\":\"Warm-up task\",\"description\":\"Never saved\",\"completed\":false}");
+        send("DELETE", "/tasks/-1", null, null);
+        requests += 4;
+        return requests;
+    }
+
+    // Up to 20 hot IDs, a different slice each round
+    private String batchOfHotIds(int round) {
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < Math.min(20, hotIds.size()); i++) {
+            if (i > 0) {
+                ids.append(',');
+            }
+            ids.append(hotIds.get((round + i) % hotIds.size()));
+        }
+        return ids.toString();
+    }
+
+    private String send(String method, String path, String contentType, String body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(Duration.ofSeconds(10))
+            .header("Accept", "application/json");
+        if (body != null) {
+            request.header("Content-Type", contentType);
+            request.method(method, HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 500) {
+            throw new IOException(method + " " + path + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,165 @@
+package com.theawesomeengineer.taskmanager.archive;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TaskArchive and its segment files, using a temporary directory.
+ */
+class TaskArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private static Task task(long id, String title, boolean completed) {
+        Task task = new Task(title, "Description of " + title, completed);
+        task.setId(id);
+        task.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0).plusMinutes(id));
+        task.setUpdatedAt(LocalDateTime.of(2024, 2, 1, 17, 30, 15, 123_456_000).plusSeconds(id));
+        // Every third task has no due date, and the priorities go round
+        if (id % 3 != 0) {
+            task.setDueAt(LocalDateTime.of(2024, 1, 20, 12, 0).minusHours(id));
+        }
+        task.setPriority(TaskPriority.values()[(int) (id % TaskPriority.values().length)]);
+        return task;
+    }
+
+    private TaskArchive openArchive() throws Exception {
+        // Small blocks so the tests cover lookups across several blocks
+        TaskArchive archive = new TaskArchive(directory.toString(), 4, 0);
+        archive.open();
+        return archive;
+    }
+
+    @Test
+    void find_AfterAppend_ShouldReturnEveryFieldOfEveryTask() throws Exception {
+        // Arrange - 50 tasks in random-ish ID order, so they span many blocks
+        TaskArchive archive = openArchive();
+        List<Task> tasks = new ArrayList<>();
+        for (long id = 50; id >= 1; id--) {
+            tasks.add(task(id * 1024 + 3, "Task " + id + " ✓", true));
+        }
+
+        // Act
+        archive.append(tasks);
+
+        // Assert
+        assertEquals(50, archive.getArchivedTaskCount());
+        for (Task expected : tasks) {
+            Task actual = archive.find(expected.getId()).orElseThrow();
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getCompleted(), actual.getCompleted());
+            assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+            assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+            assertEquals(expected.getDueAt(), actual.getDueAt());
+            assertEquals(expected.getPriority(), actual.getPriority());
+        }
+        assertTrue(archive.find(2L).isEmpty());
+        assertTrue(archive.find(1024L * 100).isEmpty());
+    }
+
+    @Test
+    void find_WhenArchivedTwice_ShouldReturnNewestCopy() throws Exception {
+        // Arrange
+        TaskArchive archive = openArchive();
+        archive.append(List.of(task(1, "First version", true), task(2, "Other", true)));
+
+        // Act
+        Thread.sleep(2);
+        archive.append(List.of(task(1, "Second version", true)));
+
+        // Assert
+        assertEquals("Second version", archive.find(1L).orElseThrow().getTitle());
+        assertEquals("Other", archive.find(2L).orElseThrow().getTitle());
+    }
+
+    @Test
+    void reopen_ShouldLoadSegmentsAndDeletedIdsFromDisk() throws Exception {
+        // Arrange
+        TaskArchive archive = openArchive();
+        archive.append(List.of(task(1, "Keep", true), task(2, "Delete", true)));
+        archive.markDeleted(2L);
+
+        // Act - a new instance on the same directory, like after a restart
+        TaskArchive reopened = openArchive();
+
+        // Assert
+        assertEquals(1, reopened.getSegmentCount());
+        assertEquals("Keep", reopened.find(1L).orElseThrow().getTitle());
+        assertEquals(Optional.empty(), reopened.find(2L));
+        assertFalse(archive.contains(2L));
+    }
+
+    @Test
+    void find_ShouldPickUpSegmentsWrittenByAnotherInstance() throws Exception {
+        // Arrange
+        TaskArchive reader = openArchive();
+        TaskArchive writer = openArchive();
+
+        // Act - the scheduled refresh, run by hand
+        writer.append(List.of(task(7, "Archived elsewhere", true)));
+        reader.refresh();
+
+        // Assert
+        assertEquals("Archived elsewhere", reader.find(7L).orElseThrow().getTitle());
+    }
+
+    @Test
+    void find_MissBelowHighestArchivedId_ShouldRescan() throws Exception {
+        // Arrange
+        TaskArchive reader = openArchive();
+        TaskArchive writer = openArchive();
+        writer.append(List.of(task(100, "High", true)));
+        reader.refresh();
+
+        // Act
+        writer.append(List.of(task(7, "Archived elsewhere", true)));
+
+        // Assert - rescan interval is 0 in these tests, so the miss triggers a rescan
+        assertEquals("Archived elsewhere", reader.find(7L).orElseThrow().getTitle());
+    }
+
+    @Test
+    void find_AboveHighestArchivedId_ShouldNotRescan() throws Exception {
+        // Arrange
+        TaskArchive reader = openArchive();
+        TaskArchive writer = openArchive();
+        reader.append(List.of(task(1, "Low", true)));
+
+        // Act
+        writer.append(List.of(task(5000, "Archived elsewhere", true)));
+
+        // Assert - a miss above ID 1 is a normal "not found", only the refresh picks up the new segment
+        assertTrue(reader.find(5000L).isEmpty());
+        reader.refresh();
+        assertTrue(reader.find(5000L).isPresent());
+    }
+
+    @Test
+    void markDeleted_ShouldBeSeenByOtherInstancesAfterRefresh() throws Exception {
+        // Arrange
+        TaskArchive first = openArchive();
+        first.append(List.of(task(1, "Keep", true), task(2, "Delete", true)));
+        TaskArchive second = openArchive();
+
+        // Act
+        first.markDeleted(2L);
+        second.refresh();
+
+        // Assert
+        assertTrue(second.find(2L).isEmpty());
+        assertTrue(second.find(1L).isPresent());
+    }
+}
@@ -0,0 +1,84 @@
+package com.theawesomeengineer.taskmanager.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CacheInvalidationBus with both transports.
+ * Each bus plays the part of one app instance.
+ */
+class CacheInvalidationBusTest {
+
+    @Test
+    void publish_WithLoopback_ShouldReachOtherNodesOnly() {
+        // Arrange
+        CacheInvalidationBus nodeA = new CacheInvalidationBus(new LoopbackInvalidationTransport("bus-test"));
+        CacheInvalidationBus nodeB = new CacheInvalidationBus(new LoopbackInvalidationTransport("bus-test"));
+        BlockingQueue<InvalidationMessage> receivedByA = new LinkedBlockingQueue<>();
+        BlockingQueue<InvalidationMessage> receivedByB = new LinkedBlockingQueue<>();
+        nodeA.addListener(receivedByA::add);
+        nodeB.addListener(receivedByB::add);
+
+        try {
+            // Act
+            nodeA.publish("Task", 42L);
+
+            // Assert
+            InvalidationMessage message = receivedByB.poll();
+            assertNotNull(message);
+            assertEquals("Task", message.getEntityName());
+            assertEquals("42", message.getEntityId());
+            assertEquals(nodeA.getNodeId(), message.getOriginNodeId());
+            assertTrue(receivedByA.isEmpty());
+        } finally {
+            nodeA.close();
+            nodeB.close();
+        }
+    }
+
+    @Test
+    void publish_WithUdp_ShouldReachPeer() throws Exception {
+        // Arrange - two "instances" on localhost that know about each other
+        int portA = freeUdpPort();
+        int portB = freeUdpPort();
+        CacheInvalidationBus nodeA = new CacheInvalidationBus(new UdpInvalidationTransport(portA,
+            List.of(new InetSocketAddress("localhost", portB))));
+        CacheInvalidationBus nodeB = new CacheInvalidationBus(new UdpInvalidationTransport(portB,
+            List.of(new InetSocketAddress("localhost", portA))));
+        BlockingQueue<InvalidationMessage> receivedByB = new LinkedBlockingQueue<>();
+        nodeB.addListener(receivedByB::add);
+
+        try {
+            // Act
+            nodeA.publish("Task", 7L);
+
+            // Assert
+            InvalidationMessage message = receivedByB.poll(5, TimeUnit.SECONDS);
+            assertNotNull(message);
+            assertEquals("7", message.getEntityId());
+        } finally {
+            nodeA.close();
+            nodeB.close();
+        }
+    }
+
+    @Test
+    void decode_WithUnknownPayload_ShouldReturnNull() {
+        assertNull(InvalidationMessage.decode("hello"));
+        assertNull(InvalidationMessage.decode("v2|node|Task|1"));
+    }
+
+    private static int freeUdpPort() throws Exception {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
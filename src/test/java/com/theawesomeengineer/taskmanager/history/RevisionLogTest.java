@@ -0,0 +1,192 @@
+package com.theawesomeengineer.taskmanager.history;
+
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for RevisionLog, writing to a temporary directory.
+ */
+class RevisionLogTest {
+
+    @TempDir
+    Path directory;
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_789);
+
+    private static RevisionRecord updated(long taskId, int minute, String user) {
+        return new RevisionRecord(taskId, RevisionType.UPDATED, START.plusMinutes(minute), user,
+            "Title " + minute, "Description " + minute, minute % 2 == 0,
+            minute % 2 == 0 ? START.plusDays(minute) : null,
+            TaskPriority.values()[minute % TaskPriority.values().length]);
+    }
+
+    private RevisionLog openLog(String writerId) throws Exception {
+        RevisionLog log = new RevisionLog(directory, writerId, 1024 * 1024, 0);
+        log.open();
+        return log;
+    }
+
+    @Test
+    void read_ShouldReturnOnlyThatTasksRevisionsOldestFirst() throws Exception {
+        // Arrange
+        RevisionLog log = openLog("a");
+        log.append(List.of(updated(1, 0, "alice"), updated(2, 1, "bob"), updated(1, 2, "carol")));
+        log.append(List.of(updated(3, 3, "dave"), RevisionRecord.deleted(1, "erin")));
+
+        // Act
+        List<RevisionRecord> history = log.read(1);
+
+        // Assert
+        assertEquals(3, history.size());
+        assertEquals("alice", history.get(0).getChangedBy());
+        assertEquals("Title 0", history.get(0).getTitle());
+        assertEquals(START, history.get(0).getChangedAt());
+        assertEquals(START, history.get(0).getDueAt());
+        assertEquals(TaskPriority.LOW, history.get(0).getPriority());
+        assertEquals(START.plusDays(2), history.get(1).getDueAt());
+        assertEquals(TaskPriority.HIGH, history.get(1).getPriority());
+        assertEquals("carol", history.get(1).getChangedBy());
+        assertEquals(RevisionType.DELETED, history.get(2).getType());
+        assertNull(history.get(2).getTitle());
+        assertNull(history.get(2).getPriority());
+        assertTrue(log.read(42).isEmpty());
+    }
+
+    @Test
+    void open_ShouldRebuildIndexFromFilesOnDisk() throws Exception {
+        // Arrange
+        RevisionLog firstRun = openLog("a");
+        firstRun.append(List.of(updated(1, 0, "alice")));
+        firstRun.append(List.of(updated(1, 1, "bob")));
+        firstRun.close();
+
+        // Act - like a restart: a new writer on the same directory
+        RevisionLog secondRun = openLog("b");
+        secondRun.append(List.of(updated(1, 2, "carol")));
+
+        // Assert
+        List<RevisionRecord> history = secondRun.read(1);
+        assertEquals(List.of("alice", "bob", "carol"), history.stream().map(RevisionRecord::getChangedBy).toList());
+    }
+
+    @Test
+    void open_WithHalfWrittenBlockAtTheEnd_ShouldKeepTheCompleteBlocks() throws Exception {
+        // Arrange - a crash in the middle of writing a block leaves some bytes at the end of the file
+        RevisionLog firstRun = openLog("a");
+        firstRun.append(List.of(updated(1, 0, "alice")));
+        firstRun.close();
+        Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.filter(path -> path.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        Files.write(file, new byte[] {0x42, 0x4C, 0x4B, 0x31, 0, 0, 0, 5}, StandardOpenOption.APPEND);
+
+        // Act
+        RevisionLog secondRun = openLog("b");
+
+        // Assert
+        assertEquals(1, secondRun.read(1).size());
+    }
+
+    @Test
+    void read_ShouldSeeBlocksWrittenByAnotherInstance() throws Exception {
+        // Arrange
+        RevisionLog reader = openLog("a");
+        RevisionLog writer = openLog("b");
+
+        writer.append(List.of(updated(7, 0, "alice")));
+
+        // Act - rescan interval is 0 in these tests
+        List<RevisionRecord> beforeRefresh = reader.read(7);
+        reader.refresh();
+        List<RevisionRecord> afterRefresh = reader.read(7);
+
+        // Assert - reads never look at the directory themselves
+        assertTrue(beforeRefresh.isEmpty());
+        assertEquals(1, afterRefresh.size());
+    }
+
+    @Test
+    void read_ShouldFindRevisionsInSealedFilesThroughTheirIndexFiles() throws Exception {
+        // Arrange - small files, many tasks per file, and only one sealed index cached at a time
+        RevisionLog firstRun = new RevisionLog(directory, "a", 8 * 1024, 0, 1);
+        firstRun.open();
+        for (int minute = 0; minute < 10; minute++) {
+            List<RevisionRecord> block = new ArrayList<>();
+            for (long taskId = 1; taskId <= 300; taskId++) {
+                block.add(updated(taskId, minute, "user" + minute));
+            }
+            firstRun.append(block);
+        }
+        firstRun.close();
+        RevisionLog secondRun = new RevisionLog(directory, "b", 8 * 1024, 0, 1);
+        secondRun.open();
+
+        // Act
+        List<RevisionRecord> first = secondRun.read(1);
+        List<RevisionRecord> middle = secondRun.read(150);
+        List<RevisionRecord> last = secondRun.read(300);
+
+        // Assert - every file was sealed, so all of these came from .idx files
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> names = files.map(path -> path.getFileName().toString()).toList();
+            long logFiles = names.stream().filter(name -> name.endsWith(".log")).count();
+            assertTrue(logFiles > 1);
+            assertEquals(logFiles, names.stream().filter(name -> name.endsWith(".idx")).count());
+        }
+        assertEquals(10, first.size());
+        assertEquals("user0", first.get(0).getChangedBy());
+        assertEquals("user9", first.get(9).getChangedBy());
+        assertEquals(10, middle.size());
+        assertTrue(middle.stream().allMatch(record -> record.getTaskId() == 150));
+        assertEquals(10, last.size());
+        assertTrue(secondRun.read(301).isEmpty());
+    }
+
+    @Test
+    void refresh_ShouldSealFilesNobodyWritesToAnyMore() throws Exception {
+        // Arrange - a writer that crashed without closing its file
+        RevisionLog crashed = openLog("a");
+        crashed.append(List.of(updated(1, 0, "alice"), updated(2, 0, "bob")));
+        Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.findFirst().orElseThrow();
+        }
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - 11 * 60 * 1000));
+        RevisionLog other = openLog("b");
+
+        // Act
+        other.refresh();
+
+        // Assert
+        String name = file.getFileName().toString();
+        assertTrue(Files.exists(file.resolveSibling(name.replace(".log", ".idx"))));
+        assertEquals(1, other.read(1).size());
+        assertEquals("bob", other.read(2).get(0).getChangedBy());
+    }
+
+    @Test
+    void deleted_ShouldStampChangedAtInUtc() {
+        // Act
+        LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC);
+        RevisionRecord record = RevisionRecord.deleted(1, "alice");
+        LocalDateTime after = LocalDateTime.now(ZoneOffset.UTC);
+
+        // Assert - the API labels changedAt as UTC, whatever the server's time zone is
+        assertFalse(record.getChangedAt().isBefore(before));
+        assertFalse(record.getChangedAt().isAfter(after));
+    }
+}
@@ -0,0 +1,113 @@
+package com.theawesomeengineer.taskmanager.idempotency;
+
+import com.theawesomeengineer.taskmanager.exception.IdempotencyStoreFullException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InMemoryIdempotencyStore.
+ */
+class InMemoryIdempotencyStoreTest {
+
+    @Test
+    void claim_WhenKeyIsNew_ShouldSucceedOnlyOnce() {
+        // Arrange
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100, 60, 30);
+
+        // Act & Assert
+        assertTrue(store.claim("key-1", "fp"));
+        assertFalse(store.claim("key-1", "fp"));
+        assertFalse(store.find("key-1").isCompleted());
+    }
+
+    @Test
+    void complete_ShouldStoreResponse() {
+        // Arrange
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100, 60, 30);
+        store.claim("key-1", "fp");
+
+        // Act
+        store.complete("key-1", "fp", 201, "{\"id\":1}");
+
+        // Assert
+        IdempotencyRecord record = store.find("key-1");
+        assertTrue(record.isCompleted());
+        assertEquals(201, record.getStatusCode());
+        assertEquals("{\"id\":1}", record.getResponseBody());
+    }
+
+    @Test
+    void release_ShouldAllowKeyToBeClaimedAgain() {
+        // Arrange
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100, 60, 30);
+        store.claim("key-1", "fp");
+
+        // Act
+        store.release("key-1");
+
+        // Assert
+        assertNull(store.find("key-1"));
+        assertTrue(store.claim("key-1", "fp"));
+    }
+
+    @Test
+    void claim_WhenFull_ShouldDropOldestKey() {
+        // Arrange
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, 60, 30);
+
+        // Act
+        store.claim("key-1", "fp");
+        store.complete("key-1", "fp", 201, "{}");
+        store.claim("key-2", "fp");
+        store.complete("key-2", "fp", 201, "{}");
+        store.claim("key-3", "fp");
+
+        // Assert
+        assertEquals(2, store.size());
+        assertNull(store.find("key-1"));
+        assertNotNull(store.find("key-3"));
+    }
+
+    @Test
+    void claim_WhenFull_ShouldKeepPendingKeysAndDropFinishedOne() {
+        // Arrange - key-1 is still running, key-2 has finished
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, 60, 30);
+        store.claim("key-1", "fp");
+        store.claim("key-2", "fp");
+        store.complete("key-2", "fp", 201, "{}");
+
+        // Act
+        assertTrue(store.claim("key-3", "fp"));
+
+        // Assert - a retry of key-1 must still see it as running
+        assertFalse(store.claim("key-1", "fp"));
+        assertNull(store.find("key-2"));
+        assertNotNull(store.find("key-3"));
+    }
+
+    @Test
+    void claim_WhenFullOfPendingKeys_ShouldRefuseNewKey() {
+        // Arrange
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, 60, 30);
+        store.claim("key-1", "fp");
+        store.claim("key-2", "fp");
+
+        // Act & Assert
+        assertThrows(IdempotencyStoreFullException.class, () -> store.claim("key-3", "fp"));
+        assertFalse(store.find("key-1").isCompleted());
+        assertFalse(store.find("key-2").isCompleted());
+    }
+
+    @Test
+    void find_WhenExpired_ShouldReturnNull() {
+        // Arrange - a TTL of zero means records expire right away
+        InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100, 0, 0);
+        store.claim("key-1", "fp");
+        store.complete("key-1", "fp", 201, "{}");
+
+        // Act & Assert
+        assertNull(store.find("key-1"));
+        assertTrue(store.claim("key-1", "fp"));
+    }
+}
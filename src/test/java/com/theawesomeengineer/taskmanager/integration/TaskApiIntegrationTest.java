@@ -2,6 +2,8 @@ package com.theawesomeengineer.taskmanager.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
+import com.theawesomeengineer.taskmanager.history.RevisionRecorder;
 import com.theawesomeengineer.taskmanager.model.TaskRequest;
 import com.theawesomeengineer.taskmanager.repository.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
@@ -17,6 +20,9 @@ import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
 import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,6 +34,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @SpringBootTest
 @AutoConfigureMockMvc
 @Testcontainers
+@ActiveProfiles("test")
 class TaskApiIntegrationTest {
 
     @Container
@@ -52,6 +59,9 @@ class TaskApiIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private RevisionRecorder revisionRecorder;
+
     @BeforeEach
     void setUp() {
         taskRepository.deleteAll();
@@ -108,6 +118,34 @@ class TaskApiIntegrationTest {
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    @Test
+    void batchGetTasks_WithMissingId_ShouldReturnEveryItemInRequestOrder() throws Exception {
+        Task first = taskRepository.save(new Task("First Task", "Description 1", false));
+        Task second = taskRepository.save(new Task("Second Task", "Description 2", true));
+
+        mockMvc.perform(post("/tasks:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[" + second.getId() + ",999," + first.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[0].found", is(true)))
+                .andExpect(jsonPath("$.items[0].task.title", is("Second Task")))
+                .andExpect(jsonPath("$.items[1].id", is(999)))
+                .andExpect(jsonPath("$.items[1].found", is(false)))
+                .andExpect(jsonPath("$.items[1].error", containsString("999")))
+                .andExpect(jsonPath("$.items[2].found", is(true)))
+                .andExpect(jsonPath("$.items[2].task.title", is("First Task")));
+    }
+
+    @Test
+    void batchGetTasks_WithNoIds_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/tasks:batchGet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createTask_WithValidData_ShouldReturn201() throws Exception {
         TaskRequest request = new TaskRequest();
@@ -128,6 +166,70 @@ class TaskApiIntegrationTest {
                 .andExpect(jsonPath("$.updatedAt").exists());
     }
 
+    @Test
+    void createTask_WithSameIdempotencyKey_ShouldCreateOnlyOneTask() throws Exception {
+        TaskRequest request = new TaskRequest();
+        request.setTitle("New Task");
+        request.setDescription("New Description");
+
+        String firstResponse = mockMvc.perform(post("/tasks")
+                        .header("Idempotency-Key", "create-once")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(post("/tasks")
+                        .header("Idempotency-Key", "create-once")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().json(firstResponse));
+
+        mockMvc.perform(get("/tasks"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void createTask_WithReusedIdempotencyKey_ShouldReturn422() throws Exception {
+        TaskRequest request = new TaskRequest();
+        request.setTitle("New Task");
+        request.setDescription("New Description");
+
+        mockMvc.perform(post("/tasks")
+                        .header("Idempotency-Key", "reused-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        request.setTitle("Another Task");
+        mockMvc.perform(post("/tasks")
+                        .header("Idempotency-Key", "reused-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void createTask_WithDueAtAndPriority_ShouldReturnThem() throws Exception {
+        mockMvc.perform(post("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Pay rent\", \"description\": \"Before the 1st\","
+                            + " \"dueAt\": \"2030-01-01T09:00:00Z\", \"priority\": \"URGENT\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.dueAt", is("2030-01-01T09:00:00Z")))
+                .andExpect(jsonPath("$.priority", is("URGENT")));
+
+        // No priority given - MEDIUM
+        mockMvc.perform(post("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Read a book\", \"description\": \"Any book\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.priority", is("MEDIUM")))
+                .andExpect(jsonPath("$.dueAt").doesNotExist());
+    }
+
     @Test
     void createTask_WithoutTitle_ShouldReturn400() throws Exception {
         TaskRequest request = new TaskRequest();
@@ -173,6 +275,120 @@ class TaskApiIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void patchTask_WithOnlyCompleted_ShouldKeepOtherFields() throws Exception {
+        Task task = new Task("Original Task", "Original Description", false);
+        Task saved = taskRepository.save(task);
+
+        mockMvc.perform(patch("/tasks/{id}", saved.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"completed\": true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title", is("Original Task")))
+                .andExpect(jsonPath("$.description", is("Original Description")))
+                .andExpect(jsonPath("$.completed", is(true)));
+
+        // Verify the change was saved
+        mockMvc.perform(get("/tasks/{id}", saved.getId()))
+                .andExpect(jsonPath("$.completed", is(true)))
+                .andExpect(jsonPath("$.title", is("Original Task")));
+    }
+
+    @Test
+    void patchTask_WithBlankTitle_ShouldReturn400() throws Exception {
+        Task task = new Task("Original Task", "Original Description", false);
+        Task saved = taskRepository.save(task);
+
+        mockMvc.perform(patch("/tasks/{id}", saved.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"title\": \"   \"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void patchTask_WithPlainJson_ShouldReturn415() throws Exception {
+        Task task = new Task("Original Task", "Original Description", false);
+        Task saved = taskRepository.save(task);
+
+        mockMvc.perform(patch("/tasks/{id}", saved.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"completed\": true}"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void patchTask_WithInvalidId_ShouldReturn404() throws Exception {
+        mockMvc.perform(patch("/tasks/999")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"completed\": true}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void patchTask_WithNullDueAt_ShouldRemoveDueDate() throws Exception {
+        Task task = new Task("Original Task", "Original Description", false);
+        task.setDueAt(LocalDateTime.of(2030, 1, 1, 9, 0));
+        Task saved = taskRepository.save(task);
+
+        mockMvc.perform(patch("/tasks/{id}", saved.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"dueAt\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dueAt").doesNotExist())
+                .andExpect(jsonPath("$.title", is("Original Task")));
+
+        // Leaving dueAt out keeps it
+        mockMvc.perform(patch("/tasks/{id}", saved.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"dueAt\": \"2031-06-01T10:00:00+02:00\", \"priority\": \"HIGH\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/tasks/{id}", saved.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"completed\": true}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dueAt", is("2031-06-01T08:00:00Z")))
+                .andExpect(jsonPath("$.priority", is("HIGH")));
+    }
+
+    @Test
+    void getDueSoonTasks_ShouldReturnOpenTasksMostImportantFirst() throws Exception {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        taskRepository.save(taskDueAt("Low soon", now.plusMinutes(5), TaskPriority.LOW, false));
+        taskRepository.save(taskDueAt("Urgent later", now.plusMinutes(30), TaskPriority.URGENT, false));
+        taskRepository.save(taskDueAt("Urgent overdue", now.minusHours(1), TaskPriority.URGENT, false));
+        taskRepository.save(taskDueAt("Urgent next week", now.plusDays(7), TaskPriority.URGENT, false));
+        taskRepository.save(taskDueAt("Urgent but done", now.plusMinutes(5), TaskPriority.URGENT, true));
+        taskRepository.save(new Task("No due date", "Never due", false));
+
+        mockMvc.perform(get("/tasks/due-soon").param("withinMinutes", "60"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].title", is("Urgent overdue")))
+                .andExpect(jsonPath("$[1].title", is("Urgent later")))
+                .andExpect(jsonPath("$[2].title", is("Low soon")));
+    }
+
+    @Test
+    void getDueSoonTasks_WithLimitZero_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/tasks/due-soon").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createTask_WithUnknownPriority_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Task\", \"description\": \"Description\", \"priority\": \"SOMEDAY\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static Task taskDueAt(String title, LocalDateTime dueAt, TaskPriority priority, boolean completed) {
+        Task task = new Task(title, "Description of " + title, completed);
+        task.setDueAt(dueAt);
+        task.setPriority(priority);
+        return task;
+    }
+
     @Test
     void deleteTask_WithValidId_ShouldReturn204() throws Exception {
         Task task = new Task("Task to Delete", "Will be deleted", false);
@@ -191,4 +407,70 @@ class TaskApiIntegrationTest {
         mockMvc.perform(delete("/tasks/999"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void getTaskHistory_AfterCreatePatchAndDelete_ShouldListEveryChange() throws Exception {
+        TaskRequest request = new TaskRequest();
+        request.setTitle("Tracked Task");
+        request.setDescription("Tracked Description");
+
+        String response = mockMvc.perform(post("/tasks")
+                        .header("X-User", "alice")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(response).get("id").asLong();
+
+        mockMvc.perform(patch("/tasks/{id}", id)
+                        .header("X-User", "bob")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"completed\": true}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/tasks/{id}", id).header("X-User", "carol"))
+                .andExpect(status().isNoContent());
+
+        // History is written in the background - wait for it
+        revisionRecorder.flush(5000);
+
+        mockMvc.perform(get("/tasks/{id}/history", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].operation", is("CREATED")))
+                .andExpect(jsonPath("$[0].changedBy", is("alice")))
+                .andExpect(jsonPath("$[1].operation", is("UPDATED")))
+                .andExpect(jsonPath("$[1].changedBy", is("bob")))
+                .andExpect(jsonPath("$[1].completed", is(true)))
+                .andExpect(jsonPath("$[2].operation", is("DELETED")))
+                .andExpect(jsonPath("$[2].changedBy", is("carol")))
+                .andExpect(jsonPath("$[2].revision", is(3)));
+    }
+
+    @Test
+    void getTaskHistory_WithAuthenticatedUser_ShouldRecordThemInsteadOfXUser() throws Exception {
+        TaskRequest request = new TaskRequest();
+        request.setTitle("Audited Task");
+        request.setDescription("Audited Description");
+
+        String response = mockMvc.perform(post("/tasks")
+                        .principal(() -> "dana")
+                        .header("X-User", "mallory")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(response).get("id").asLong();
+
+        revisionRecorder.flush(5000);
+
+        mockMvc.perform(get("/tasks/{id}/history", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].changedBy", is("dana")));
+    }
+
+    @Test
+    void getTaskHistory_WithInvalidId_ShouldReturn404() throws Exception {
+        mockMvc.perform(get("/tasks/999/history"))
+                .andExpect(status().isNotFound());
+    }
 }
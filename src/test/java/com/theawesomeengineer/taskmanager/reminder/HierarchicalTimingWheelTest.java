@@ -0,0 +1,119 @@
+package com.theawesomeengineer.taskmanager.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for HierarchicalTimingWheel. Time is just a number here, so nothing sleeps.
+ */
+class HierarchicalTimingWheelTest {
+
+    // 10 ms ticks, 8 slots, 3 levels - reaches 10 * 8 * 8 * 8 = 5120 ms ahead
+    private static HierarchicalTimingWheel<String> smallWheel() {
+        return new HierarchicalTimingWheel<>(10, 8, 3, 0);
+    }
+
+    @Test
+    void advanceTo_ShouldExpireTimersAfterTheirDeadlineInOrder() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = smallWheel();
+        wheel.schedule("b", 55);
+        wheel.schedule("a", 12);
+        wheel.schedule("c", 700);
+
+        // Act & Assert
+        assertEquals(List.of(), wheel.advanceTo(10));
+        assertEquals(List.of("a"), wheel.advanceTo(20));
+        assertEquals(List.of("b"), wheel.advanceTo(690));
+        assertEquals(List.of(), wheel.advanceTo(700));
+        assertEquals(List.of("c"), wheel.advanceTo(710));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancel_ShouldStopTheTimerFromExpiring() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = smallWheel();
+        HierarchicalTimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 300);
+        wheel.schedule("kept", 300);
+
+        // Act
+        boolean first = wheel.cancel(cancelled);
+        boolean second = wheel.cancel(cancelled);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("kept"), wheel.advanceTo(1000));
+    }
+
+    @Test
+    void schedule_WithDeadlineInThePast_ShouldExpireOnTheNextTick() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = smallWheel();
+        wheel.advanceTo(500);
+
+        // Act
+        wheel.schedule("late", 100);
+
+        // Assert
+        assertEquals(List.of("late"), wheel.advanceTo(510));
+    }
+
+    @Test
+    void schedule_BeyondTheTopLevel_ShouldStillExpireOnTime() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = smallWheel();
+
+        // Act - four times further than the wheel reaches
+        wheel.schedule("far", 20_483);
+
+        // Assert
+        assertEquals(List.of(), wheel.advanceTo(20_480));
+        assertEquals(List.of("far"), wheel.advanceTo(20_490));
+    }
+
+    @Test
+    void advanceTo_WithManyRandomTimers_ShouldFireEachOnceWithinOneTick() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = smallWheel();
+        Random random = new Random(42);
+        Map<String, Long> deadlines = new HashMap<>();
+        List<HierarchicalTimingWheel.Timeout<String>> timeouts = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            long deadline = random.nextInt(20_000);
+            deadlines.put("timer " + i, deadline);
+            timeouts.add(wheel.schedule("timer " + i, deadline));
+        }
+        // Cancel every tenth timer
+        for (int i = 0; i < timeouts.size(); i += 10) {
+            wheel.cancel(timeouts.get(i));
+            deadlines.remove("timer " + i);
+        }
+
+        // Act - one tick at a time
+        Map<String, Long> firedAt = new HashMap<>();
+        for (long now = 10; now <= 20_010; now += 10) {
+            for (String fired : wheel.advanceTo(now)) {
+                assertNull(firedAt.put(fired, now), fired + " fired twice");
+            }
+        }
+
+        // Assert
+        assertEquals(deadlines.keySet(), firedAt.keySet());
+        for (Map.Entry<String, Long> entry : firedAt.entrySet()) {
+            long deadline = deadlines.get(entry.getKey());
+            assertTrue(entry.getValue() > deadline && entry.getValue() <= deadline + 10,
+                entry.getKey() + " was due at " + deadline + " but fired at " + entry.getValue());
+        }
+        assertEquals(0, wheel.size());
+    }
+}
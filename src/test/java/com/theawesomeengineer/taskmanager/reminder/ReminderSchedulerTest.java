@@ -0,0 +1,218 @@
+package com.theawesomeengineer.taskmanager.reminder;
+
+import com.theawesomeengineer.taskmanager.cache.CacheInvalidationBus;
+import com.theawesomeengineer.taskmanager.cache.InvalidationMessage;
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for ReminderScheduler, with a mocked repository and event publisher.
+ * Ticks are 10 ms and reminders are sent 60 minutes before the due date, so a task due in
+ * 30 minutes gets its REMINDER event on the next tick and never gets its OVERDUE event.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReminderSchedulerTest {
+
+    private static final long TICK_MILLIS = 10;
+    private static final long WAIT_MILLIS = 2000;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ReminderScheduler reminderScheduler;
+
+    @BeforeEach
+    void setUp() {
+        // One dispatch thread, so events are handled in the order their timers expire
+        reminderScheduler = new ReminderScheduler(true, TICK_MILLIS, 60, 5, 100, 1);
+        ReflectionTestUtils.setField(reminderScheduler, "taskRepository", taskRepository);
+        ReflectionTestUtils.setField(reminderScheduler, "cacheInvalidationBus", cacheInvalidationBus);
+        ReflectionTestUtils.setField(reminderScheduler, "eventPublisher", eventPublisher);
+        reminderScheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reminderScheduler.stop();
+    }
+
+    // Whole milliseconds, like the wheel uses
+    private static LocalDateTime inMinutes(long minutes) {
+        return LocalDateTime.now(ZoneOffset.UTC).plusMinutes(minutes).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private static Task task(long id, LocalDateTime dueAt) {
+        Task task = new Task("Task " + id, "Description", false);
+        task.setId(id);
+        task.setDueAt(dueAt);
+        return task;
+    }
+
+    private static TaskReminderEvent eventFor(long taskId, ReminderType type) {
+        return argThat(event -> event != null && event.getTask().getId() == taskId && event.getType() == type);
+    }
+
+    private void waitForScheduledCount(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+        while (reminderScheduler.getScheduledCount() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(TICK_MILLIS);
+        }
+        assertEquals(count, reminderScheduler.getScheduledCount());
+    }
+
+    @Test
+    void fire_WhenTimersWereReplacedAfterExpiring_ShouldNotSendTheStaleEvent() throws Exception {
+        // Arrange - task 1's event blocks the only dispatch thread
+        Task blocking = task(1, inMinutes(30));
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(taskRepository.findById(1L)).thenAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return Optional.of(blocking);
+        });
+        Task sentinel = task(3, inMinutes(30));
+        when(taskRepository.findById(3L)).thenReturn(Optional.of(sentinel));
+
+        reminderScheduler.taskSaved(blocking);
+        assertTrue(blocked.await(WAIT_MILLIS, TimeUnit.MILLISECONDS));
+
+        // Task 2's reminder expires and waits behind task 1, then the task gets a new due date
+        reminderScheduler.taskSaved(task(2, inMinutes(30)));
+        waitForScheduledCount(2);
+        reminderScheduler.taskSaved(task(2, inMinutes(24 * 60)));
+
+        // Task 3's reminder is queued after task 2's, so once it is sent, task 2's has been handled
+        reminderScheduler.taskSaved(sentinel);
+        waitForScheduledCount(4);
+
+        // Act
+        release.countDown();
+
+        // Assert
+        verify(eventPublisher, timeout(WAIT_MILLIS)).publishEvent(eventFor(3, ReminderType.REMINDER));
+        verify(eventPublisher).publishEvent(eventFor(1, ReminderType.REMINDER));
+        verify(taskRepository, never()).findById(2L);
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void taskSaved_WithTheSameDueAt_ShouldKeepTheTimersAndNotRemindAgain() throws Exception {
+        // Arrange
+        LocalDateTime dueAt = inMinutes(30);
+        Task task = task(1, dueAt);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        reminderScheduler.taskSaved(task);
+        verify(eventPublisher, timeout(WAIT_MILLIS)).publishEvent(eventFor(1, ReminderType.REMINDER));
+
+        // Act - e.g. only the title was changed
+        Task renamed = task(1, dueAt);
+        renamed.setTitle("New title");
+        reminderScheduler.taskSaved(renamed);
+        Thread.sleep(10 * TICK_MILLIS);
+
+        // Assert - only the OVERDUE timer is left, and the reminder was sent once
+        assertEquals(1, reminderScheduler.getScheduledCount());
+        verify(eventPublisher, times(1)).publishEvent(any(TaskReminderEvent.class));
+    }
+
+    @Test
+    void rebuild_ShouldSendMissedEventsWithinTheGraceWindowOnly() throws Exception {
+        // Arrange - task 1 was due 2 minutes ago, task 2 10 minutes ago (grace is 5 minutes)
+        LocalDateTime recentlyDue = inMinutes(-2);
+        LocalDateTime longAgo = inMinutes(-10);
+        when(taskRepository.findDueDates(any(), any(), any())).thenReturn(List.of(
+            new TaskDueDate(1L, recentlyDue), new TaskDueDate(2L, longAgo)));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task(1, recentlyDue)));
+
+        // Act
+        LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS);
+        int loaded = reminderScheduler.rebuild();
+        LocalDateTime after = LocalDateTime.now(ZoneOffset.UTC);
+
+        // Assert - task 1 gets only its OVERDUE event, task 2 gets nothing
+        assertEquals(2, loaded);
+        verify(eventPublisher, timeout(WAIT_MILLIS)).publishEvent(eventFor(1, ReminderType.OVERDUE));
+        waitForScheduledCount(0);
+        verify(eventPublisher, times(1)).publishEvent(any(TaskReminderEvent.class));
+        verify(taskRepository, never()).findById(2L);
+
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(taskRepository).findDueDates(from.capture(), eq(Long.MIN_VALUE), any());
+        assertFalse(from.getValue().isBefore(before.minusMinutes(5)));
+        assertFalse(from.getValue().isAfter(after.minusMinutes(5)));
+    }
+
+    @Test
+    void rebuild_ShouldKeepTimersSetByChangesMadeDuringTheRebuild() throws Exception {
+        // Arrange - the task was given a new due date after the rebuild read its old one
+        LocalDateTime oldDueAt = inMinutes(45);
+        LocalDateTime newDueAt = inMinutes(30);
+        when(taskRepository.findDueDates(any(), any(), any())).thenAnswer(invocation -> {
+            reminderScheduler.taskSaved(task(1, newDueAt));
+            return List.of(new TaskDueDate(1L, oldDueAt));
+        });
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task(1, newDueAt)));
+
+        // Act
+        reminderScheduler.rebuild();
+
+        // Assert - the reminder belongs to the new due date, so the check against the database passes
+        verify(eventPublisher, timeout(WAIT_MILLIS)).publishEvent(eventFor(1, ReminderType.REMINDER));
+        assertEquals(1, reminderScheduler.getScheduledCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onRemoteChange_ShouldReadTheTaskAgainAndFollowTheChange() throws Exception {
+        // Arrange
+        ArgumentCaptor<Consumer<InvalidationMessage>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(cacheInvalidationBus).addListener(listener.capture());
+        Task task = task(5, inMinutes(24 * 60));
+        when(taskRepository.findById(5L)).thenReturn(Optional.of(task), Optional.empty());
+
+        // Act & Assert - another instance gave the task a due date
+        listener.getValue().accept(new InvalidationMessage("other-node", Task.class.getName(), "5"));
+        waitForScheduledCount(2);
+
+        // Messages about other entities, or without a task ID, are ignored
+        listener.getValue().accept(new InvalidationMessage("other-node", "SomethingElse", "5"));
+        listener.getValue().accept(new InvalidationMessage("other-node", Task.class.getName(), "not-an-id"));
+
+        // Then another instance deleted the task
+        listener.getValue().accept(new InvalidationMessage("other-node", Task.class.getName(), "5"));
+        waitForScheduledCount(0);
+        verify(taskRepository, times(2)).findById(5L);
+        verifyNoInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,149 @@
+package com.theawesomeengineer.taskmanager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theawesomeengineer.taskmanager.exception.IdempotencyKeyConflictException;
+import com.theawesomeengineer.taskmanager.idempotency.InMemoryIdempotencyStore;
+import com.theawesomeengineer.taskmanager.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for IdempotencyService.
+ * Uses the real in-memory store so claims and replays behave like in the app.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Spy
+    private InMemoryIdempotencyStore idempotencyStore = new InMemoryIdempotencyStore(100, 60, 30);
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMillis", 5000L);
+        calls = new AtomicInteger();
+    }
+
+    private ResponseEntity<Task> createTask() {
+        Task task = new Task();
+        task.setId((long) calls.incrementAndGet());
+        task.setTitle("Test Task");
+        return ResponseEntity.status(HttpStatus.CREATED).body(task);
+    }
+
+    @Test
+    void execute_WithoutKey_ShouldRunEveryTime() {
+        // Act
+        idempotencyService.execute(null, "fp", Task.class, this::createTask);
+        idempotencyService.execute(null, "fp", Task.class, this::createTask);
+
+        // Assert
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_WithSameKey_ShouldReplayFirstResponse() {
+        // Act
+        ResponseEntity<Task> first = idempotencyService.execute("key-1", "fp", Task.class, this::createTask);
+        ResponseEntity<Task> second = idempotencyService.execute("key-1", "fp", Task.class, this::createTask);
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals(first.getBody().getId(), second.getBody().getId());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_WithSameKeyAndDifferentRequest_ShouldThrowException() {
+        // Arrange
+        idempotencyService.execute("key-1", "fp-1", Task.class, this::createTask);
+
+        // Act & Assert
+        assertThrows(
+            IdempotencyKeyConflictException.class,
+            () -> idempotencyService.execute("key-1", "fp-2", Task.class, this::createTask)
+        );
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_WhenActionFails_ShouldAllowRetry() {
+        // Arrange
+        assertThrows(
+            IllegalStateException.class,
+            () -> idempotencyService.execute("key-1", "fp", Task.class, () -> {
+                throw new IllegalStateException("database down");
+            })
+        );
+
+        // Act
+        ResponseEntity<Task> retry = idempotencyService.execute("key-1", "fp", Task.class, this::createTask);
+
+        // Assert
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+    }
+
+    @Test
+    void execute_WithConcurrentDuplicate_ShouldWaitAndReplay() throws Exception {
+        // Arrange - the first request blocks until we let it finish
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<ResponseEntity<Task>> first = executor.submit(() ->
+                idempotencyService.execute("key-1", "fp", Task.class, () -> {
+                    started.countDown();
+                    awaitQuietly(release);
+                    return createTask();
+                }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Act - the duplicate arrives while the first one is still running
+            Future<ResponseEntity<Task>> duplicate = executor.submit(() ->
+                idempotencyService.execute("key-1", "fp", Task.class, this::createTask));
+            release.countDown();
+
+            // Assert
+            assertEquals(first.get(5, TimeUnit.SECONDS).getBody().getId(),
+                duplicate.get(5, TimeUnit.SECONDS).getBody().getId());
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
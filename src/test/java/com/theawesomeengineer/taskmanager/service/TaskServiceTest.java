@@ -1,15 +1,26 @@
 package com.theawesomeengineer.taskmanager.service;
 
+import com.theawesomeengineer.taskmanager.archive.TaskArchive;
 import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
 import com.theawesomeengineer.taskmanager.exception.TaskNotFoundException;
+import com.theawesomeengineer.taskmanager.history.RevisionRecorder;
+import com.theawesomeengineer.taskmanager.history.RevisionType;
+import com.theawesomeengineer.taskmanager.reminder.ReminderScheduler;
 import com.theawesomeengineer.taskmanager.repository.TaskRepository;
+import com.theawesomeengineer.taskmanager.warmup.TaskAccessStats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.openapitools.jackson.nullable.JsonNullable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +39,18 @@ class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskArchive taskArchive;
+
+    @Mock
+    private TaskAccessStats taskAccessStats;
+
+    @Mock
+    private RevisionRecorder revisionRecorder;
+
+    @Mock
+    private ReminderScheduler reminderScheduler;
+
     @InjectMocks
     private TaskService taskService;
 
@@ -69,6 +92,7 @@ class TaskServiceTest {
         assertEquals(testTask.getId(), actualTask.getId());
         assertEquals(testTask.getTitle(), actualTask.getTitle());
         verify(taskRepository, times(1)).findById(1L);
+        verify(taskAccessStats, times(1)).recordAccess(1L);
     }
 
     @Test
@@ -85,13 +109,68 @@ class TaskServiceTest {
         verify(taskRepository, times(1)).findById(999L);
     }
 
+    @Test
+    void getTaskById_WithArchivedId_ShouldReturnTaskFromArchive() {
+        // Arrange
+        Task archivedTask = new Task("Old Task", "Done long ago", true);
+        archivedTask.setId(5L);
+        when(taskRepository.findById(5L)).thenReturn(Optional.empty());
+        when(taskArchive.find(5L)).thenReturn(Optional.of(archivedTask));
+
+        // Act
+        Task actualTask = taskService.getTaskById(5L);
+
+        // Assert
+        assertEquals("Old Task", actualTask.getTitle());
+        verify(taskArchive, times(1)).find(5L);
+    }
+
+    @Test
+    void getTasksByIds_ShouldKeepRequestOrderAndMarkMissingIds() {
+        // Arrange
+        Task secondTask = new Task("Second Task", "Another one", true);
+        secondTask.setId(2L);
+        when(taskRepository.findAllById(any())).thenReturn(Arrays.asList(testTask, secondTask));
+        when(taskArchive.find(999L)).thenReturn(Optional.empty());
+
+        // Act
+        List<Optional<Task>> results = taskService.getTasksByIds(Arrays.asList(2L, 999L, 1L, 2L));
+
+        // Assert - one result per requested ID, duplicates included
+        assertEquals(4, results.size());
+        assertEquals("Second Task", results.get(0).orElseThrow().getTitle());
+        assertTrue(results.get(1).isEmpty());
+        assertEquals("Test Task", results.get(2).orElseThrow().getTitle());
+        assertEquals("Second Task", results.get(3).orElseThrow().getTitle());
+        // Each ID is asked for only once, in a single call
+        verify(taskRepository, times(1)).findAllById(List.of(2L, 999L, 1L));
+        verify(taskRepository, never()).findById(any());
+    }
+
+    @Test
+    void getTasksByIds_WithArchivedId_ShouldReturnTaskFromArchive() {
+        // Arrange
+        Task archivedTask = new Task("Old Task", "Done long ago", true);
+        archivedTask.setId(5L);
+        when(taskRepository.findAllById(any())).thenReturn(List.of(testTask));
+        when(taskArchive.find(5L)).thenReturn(Optional.of(archivedTask));
+
+        // Act
+        List<Optional<Task>> results = taskService.getTasksByIds(Arrays.asList(1L, 5L));
+
+        // Assert
+        assertEquals("Test Task", results.get(0).orElseThrow().getTitle());
+        assertEquals("Old Task", results.get(1).orElseThrow().getTitle());
+        verify(taskArchive, never()).find(1L);
+    }
+
     @Test
     void createTask_ShouldSaveAndReturnTask() {
         // Arrange
         when(taskRepository.save(any(Task.class))).thenReturn(testTask);
 
         // Act
-        Task createdTask = taskService.createTask("Test Task", "Test Description", false);
+        Task createdTask = taskService.createTask("Test Task", "Test Description", false, null, null);
 
         // Assert
         assertNotNull(createdTask);
@@ -99,6 +178,22 @@ class TaskServiceTest {
         assertEquals("Test Description", createdTask.getDescription());
         assertFalse(createdTask.getCompleted());
         verify(taskRepository, times(1)).save(any(Task.class));
+        verify(revisionRecorder, times(1)).record(RevisionType.CREATED, testTask);
+        verify(reminderScheduler, times(1)).taskSaved(testTask);
+    }
+
+    @Test
+    void createTask_WithoutPriority_ShouldDefaultToMedium() {
+        // Arrange
+        LocalDateTime dueAt = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Task createdTask = taskService.createTask("Test Task", "Test Description", false, dueAt, null);
+
+        // Assert
+        assertEquals(dueAt, createdTask.getDueAt());
+        assertEquals(TaskPriority.MEDIUM, createdTask.getPriority());
     }
 
     @Test
@@ -108,7 +203,8 @@ class TaskServiceTest {
         when(taskRepository.save(any(Task.class))).thenReturn(testTask);
 
         // Act
-        Task updatedTask = taskService.updateTask(1L, "Updated Title", "Updated Description", true);
+        Task updatedTask = taskService.updateTask(1L, "Updated Title", "Updated Description", true,
+            null, TaskPriority.HIGH);
 
         // Assert
         assertNotNull(updatedTask);
@@ -124,12 +220,92 @@ class TaskServiceTest {
         // Act & Assert
         assertThrows(
             TaskNotFoundException.class,
-            () -> taskService.updateTask(999L, "Title", "Description", false)
+            () -> taskService.updateTask(999L, "Title", "Description", false, null, null)
         );
         verify(taskRepository, times(1)).findById(999L);
         verify(taskRepository, never()).save(any(Task.class));
     }
 
+    @Test
+    void patchTask_WithOnlyCompleted_ShouldChangeOnlyCompleted() {
+        // Arrange
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Task patchedTask = taskService.patchTask(1L, null, null, true, JsonNullable.undefined(), null);
+
+        // Assert
+        assertTrue(patchedTask.getCompleted());
+        assertEquals("Test Task", patchedTask.getTitle());
+        assertEquals("Test Description", patchedTask.getDescription());
+        verify(taskRepository, times(1)).save(testTask);
+    }
+
+    @Test
+    void patchTask_WithSameValues_ShouldNotSave() {
+        // Arrange
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+
+        // Act
+        Task patchedTask = taskService.patchTask(1L, "Test Task", null, false, JsonNullable.undefined(), TaskPriority.MEDIUM);
+
+        // Assert
+        assertSame(testTask, patchedTask);
+        verify(taskRepository, never()).save(any(Task.class));
+        verify(reminderScheduler, never()).taskSaved(any(Task.class));
+    }
+
+    @Test
+    void patchTask_WithoutDueAt_ShouldKeepDueDate() {
+        // Arrange
+        LocalDateTime dueAt = LocalDateTime.of(2030, 1, 1, 9, 0);
+        testTask.setDueAt(dueAt);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Task patchedTask = taskService.patchTask(1L, null, null, null, JsonNullable.undefined(), TaskPriority.URGENT);
+
+        // Assert
+        assertEquals(dueAt, patchedTask.getDueAt());
+        assertEquals(TaskPriority.URGENT, patchedTask.getPriority());
+    }
+
+    @Test
+    void patchTask_WithDueAtSetToNull_ShouldRemoveDueDate() {
+        // Arrange
+        testTask.setDueAt(LocalDateTime.of(2030, 1, 1, 9, 0));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(testTask));
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        Task patchedTask = taskService.patchTask(1L, null, null, null, JsonNullable.of(null), TaskPriority.URGENT);
+
+        // Assert
+        assertNull(patchedTask.getDueAt());
+        assertEquals(TaskPriority.URGENT, patchedTask.getPriority());
+        verify(reminderScheduler, times(1)).taskSaved(testTask);
+    }
+
+    @Test
+    void getDueSoonTasks_ShouldAskForOnePageSortedByPriority() {
+        // Arrange
+        Task task2 = new Task("Task 2", "Description 2", false);
+        task2.setId(2L);
+        when(taskRepository.findByCompletedFalseAndDueAtBefore(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(testTask, task2));
+
+        // Act
+        List<Task> tasks = taskService.getDueSoonTasks(60, 2);
+
+        // Assert
+        assertEquals(List.of(testTask, task2), tasks);
+        Sort expectedOrder = Sort.by(Sort.Order.desc("priority"), Sort.Order.asc("dueAt"));
+        verify(taskRepository).findByCompletedFalseAndDueAtBefore(any(LocalDateTime.class),
+            eq(PageRequest.of(0, 2, expectedOrder)));
+    }
+
     @Test
     void deleteTask_WithValidId_ShouldDeleteTask() {
         // Arrange
@@ -142,6 +318,7 @@ class TaskServiceTest {
         // Assert
         verify(taskRepository, times(1)).existsById(1L);
         verify(taskRepository, times(1)).deleteById(1L);
+        verify(reminderScheduler, times(1)).taskDeleted(1L);
     }
 
     @Test
@@ -158,4 +335,31 @@ class TaskServiceTest {
         verify(taskRepository, times(1)).existsById(999L);
         verify(taskRepository, never()).deleteById(999L);
     }
+
+    @Test
+    void deleteTask_WithArchivedId_ShouldMarkItDeletedInArchive() {
+        // Arrange
+        when(taskRepository.existsById(5L)).thenReturn(false);
+        when(taskArchive.contains(5L)).thenReturn(true);
+
+        // Act
+        taskService.deleteTask(5L);
+
+        // Assert
+        verify(taskRepository, never()).deleteById(5L);
+        verify(taskArchive, times(1)).markDeleted(5L);
+    }
+
+    @Test
+    void getTaskHistory_WithNoHistoryAndNoTask_ShouldThrowException() throws Exception {
+        // Arrange
+        when(revisionRecorder.getHistory(999L)).thenReturn(List.of());
+        when(taskRepository.findById(999L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(
+            TaskNotFoundException.class,
+            () -> taskService.getTaskHistory(999L)
+        );
+    }
 }
@@ -0,0 +1,143 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ReshardingTool using three embedded H2 databases as shards.
+ */
+class ReshardingToolTest {
+
+    private List<DataSource> shards;
+
+    @BeforeEach
+    void setUp() {
+        shards = new ArrayList<>();
+        for (int shard = 0; shard < 3; shard++) {
+            DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:reshard" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("DROP TABLE IF EXISTS tasks");
+            jdbcTemplate.execute("DROP TABLE IF EXISTS task_id_allocator");
+            jdbcTemplate.execute("CREATE TABLE tasks (id BIGINT PRIMARY KEY, title VARCHAR(255) NOT NULL, "
+                + "description VARCHAR(1000) NOT NULL, completed BOOLEAN NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL)");
+            shards.add(dataSource);
+        }
+
+        // Like the app's first start on empty databases: no tasks from before sharding
+        new TaskIdGenerator(shards, 100).getLegacyMaxId();
+    }
+
+    private void insertTask(int shard, long id) {
+        new JdbcTemplate(shards.get(shard)).update(
+            "INSERT INTO tasks (id, title, description, completed, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+            id, "Task " + id, "Description " + id, id % 2 == 0);
+    }
+
+    private List<Long> idsOn(int shard) {
+        return new JdbcTemplate(shards.get(shard)).queryForList("SELECT id FROM tasks ORDER BY id", Long.class);
+    }
+
+    @Test
+    void reshard_FromTwoToThreeShards_ShouldPutEveryTaskOnItsNewShard() throws Exception {
+        // Arrange - 100 tasks laid out for 2 shards
+        ShardLayout twoShards = new ShardLayout(2);
+        for (long sequence = 1; sequence <= 100; sequence++) {
+            long id = ShardLayout.encode(sequence);
+            insertTask(twoShards.shardOf(id), id);
+        }
+
+        // Act
+        long moved = new ReshardingTool(shards).reshard(3);
+
+        // Assert
+        ShardLayout threeShards = new ShardLayout(3);
+        int total = 0;
+        for (int shard = 0; shard < 3; shard++) {
+            for (long id : idsOn(shard)) {
+                assertEquals(shard, threeShards.shardOf(id));
+            }
+            total += idsOn(shard).size();
+        }
+        assertEquals(100, total);
+        assertTrue(moved > 0);
+    }
+
+    @Test
+    void reshard_FromThreeToOneShard_ShouldMoveEverythingToShardZero() throws Exception {
+        // Arrange
+        ShardLayout threeShards = new ShardLayout(3);
+        for (long sequence = 1; sequence <= 30; sequence++) {
+            long id = ShardLayout.encode(sequence);
+            insertTask(threeShards.shardOf(id), id);
+        }
+
+        // Act
+        new ReshardingTool(shards).reshard(1);
+
+        // Assert
+        assertEquals(30, idsOn(0).size());
+        assertTrue(idsOn(1).isEmpty());
+        assertTrue(idsOn(2).isEmpty());
+    }
+
+    @Test
+    void reshard_WithTasksFromBeforeSharding_ShouldLeaveThemOnShardZero() throws Exception {
+        // Arrange - 50 AUTO_INCREMENT tasks on the single database, then the allocator is created
+        for (long id = 1; id <= 50; id++) {
+            insertTask(0, id);
+        }
+        new JdbcTemplate(shards.get(0)).execute("DROP TABLE task_id_allocator");
+        TaskIdGenerator taskIdGenerator = new TaskIdGenerator(shards, 100);
+        assertEquals(50, taskIdGenerator.getLegacyMaxId());
+
+        // ... and the app creates more tasks with 2 shards
+        ShardLayout twoShards = new ShardLayout(2, 50);
+        List<Long> newIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            long id = taskIdGenerator.nextId();
+            assertTrue(id > 50);
+            insertTask(twoShards.shardOf(id), id);
+            newIds.add(id);
+        }
+
+        // Act
+        new ReshardingTool(shards).reshard(3);
+
+        // Assert - the old tasks didn't move, the new ones are where 3 shards put them
+        ShardLayout threeShards = new ShardLayout(3, 50);
+        for (long id = 1; id <= 50; id++) {
+            assertEquals(0, threeShards.shardOf(id));
+            assertTrue(idsOn(0).contains(id));
+        }
+        for (long id : newIds) {
+            assertTrue(idsOn(threeShards.shardOf(id)).contains(id));
+        }
+    }
+
+    @Test
+    void reshard_WhenRowWasAlreadyCopied_ShouldNotFail() throws Exception {
+        // Arrange - simulate a run that stopped after copying but before deleting from the source
+        long id = ShardLayout.encode(1);
+        insertTask(0, id);
+        insertTask(new ShardLayout(2).shardOf(id), id);
+
+        // Act
+        new ReshardingTool(shards).reshard(2);
+
+        // Assert
+        int target = new ShardLayout(2).shardOf(id);
+        assertEquals(List.of(id), idsOn(target));
+        assertEquals(1, idsOn(0).size() + idsOn(1).size() + idsOn(2).size());
+    }
+}
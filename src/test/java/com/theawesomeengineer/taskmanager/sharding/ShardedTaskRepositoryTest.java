@@ -0,0 +1,252 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.entity.TaskPriority;
+import com.theawesomeengineer.taskmanager.exception.TaskNotFoundException;
+import com.theawesomeengineer.taskmanager.repository.TaskRepository;
+import com.theawesomeengineer.taskmanager.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests TaskRepository routing with three embedded H2 databases as shards.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.open-in-view=false",
+    "taskmanager.sharding.additional-shards[0].url=jdbc:h2:mem:shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "taskmanager.sharding.additional-shards[0].username=sa",
+    "taskmanager.sharding.additional-shards[1].url=jdbc:h2:mem:shard2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "taskmanager.sharding.additional-shards[1].username=sa"
+})
+@ActiveProfiles("test")
+class ShardedTaskRepositoryTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired
+    private ShardLayout shardLayout;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository.deleteAll();
+    }
+
+    // Which shards have a row with this ID
+    private List<Integer> shardsHolding(long id) {
+        List<Integer> holding = new ArrayList<>();
+        for (int shard = 0; shard < shardRoutingDataSource.getShardCount(); shard++) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(shardRoutingDataSource.getShards().get(shard));
+            Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tasks WHERE id = ?", Integer.class, id);
+            if (count != null && count > 0) {
+                holding.add(shard);
+            }
+        }
+        return holding;
+    }
+
+    @Test
+    void createTask_ShouldStoreEachTaskOnlyOnItsShard() {
+        for (int i = 0; i < 30; i++) {
+            Task task = taskService.createTask("Task " + i, "Description " + i, false, null, null);
+
+            assertEquals(List.of(shardLayout.shardOf(task.getId())), shardsHolding(task.getId()));
+        }
+    }
+
+    @Test
+    void createTask_ShouldUseEveryShard() {
+        List<Integer> used = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Task task = taskService.createTask("Task " + i, "Description " + i, false, null, null);
+            int shard = shardLayout.shardOf(task.getId());
+            if (!used.contains(shard)) {
+                used.add(shard);
+            }
+        }
+
+        assertEquals(3, used.size());
+    }
+
+    @Test
+    void getAllTasks_ShouldMergeEveryShardInIdOrder() {
+        List<Long> createdIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            createdIds.add(taskService.createTask("Task " + i, "Description " + i, i % 2 == 0, null, null).getId());
+        }
+
+        List<Task> tasks = taskService.getAllTasks();
+
+        List<Long> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        assertEquals(createdIds, ids);
+        assertEquals(20, taskRepository.count());
+    }
+
+    @Test
+    void updateAndDeleteTask_ShouldFindTaskOnItsShard() {
+        Task created = taskService.createTask("Original", "Original description", false, null, null);
+
+        Task updated = taskService.updateTask(created.getId(), "Updated", "Updated description", true, null, null);
+        assertEquals("Updated", taskService.getTaskById(created.getId()).getTitle());
+        assertTrue(updated.getCompleted());
+
+        taskService.deleteTask(created.getId());
+        assertTrue(shardsHolding(created.getId()).isEmpty());
+        assertThrows(TaskNotFoundException.class, () -> taskService.getTaskById(created.getId()));
+    }
+
+    @Test
+    void getDueSoonTasks_ShouldMergeShardsByPriorityThenDueDate() {
+        LocalDateTime soon = LocalDateTime.now(ZoneOffset.UTC).plusMinutes(10);
+        for (int i = 0; i < 12; i++) {
+            TaskPriority priority = TaskPriority.values()[i % TaskPriority.values().length];
+            taskService.createTask("Task " + i, "Description " + i, false, soon.plusSeconds(i), priority);
+        }
+        // Not due soon, and completed - neither may show up
+        taskService.createTask("Later", "Due next week", false, soon.plusDays(7), TaskPriority.URGENT);
+        taskService.createTask("Done", "Already completed", true, soon, TaskPriority.URGENT);
+
+        List<Task> tasks = taskService.getDueSoonTasks(60, 5);
+
+        List<String> titles = new ArrayList<>();
+        for (Task task : tasks) {
+            titles.add(task.getTitle());
+        }
+        // URGENT tasks are 3, 7 and 11, then HIGH ones 2 and 6
+        assertEquals(List.of("Task 3", "Task 7", "Task 11", "Task 2", "Task 6"), titles);
+    }
+
+    @Test
+    void pagedQuery_AfterFirstPage_ShouldReturnTheRightRowsFromEveryShard() {
+        LocalDateTime soon = LocalDateTime.now(ZoneOffset.UTC).plusMinutes(10);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            taskService.createTask("Task " + i, "Description " + i, false, soon.plusSeconds(i), TaskPriority.MEDIUM);
+            expected.add("Task " + i);
+        }
+        Sort order = Sort.by(Sort.Order.desc("priority"), Sort.Order.asc("dueAt"));
+
+        List<String> titles = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            List<Task> tasks = taskRepository.findByCompletedFalseAndDueAtBefore(
+                soon.plusHours(1), PageRequest.of(page, 5, order));
+            for (Task task : tasks) {
+                titles.add(task.getTitle());
+            }
+        }
+
+        // Pages 0, 1 and 2 together hold every task exactly once, soonest first
+        assertEquals(expected, titles);
+    }
+
+    @Test
+    void unroutedRepositoryMethod_ShouldThrowInsteadOfGuessing() {
+        taskService.createTask("Task", "Description", false, null, null);
+
+        assertThrows(UnsupportedOperationException.class, () -> taskRepository.findAll(Sort.by("title")));
+        assertThrows(UnsupportedOperationException.class, () -> taskRepository.findAll(PageRequest.of(1, 10)));
+    }
+
+    @Test
+    void repositoryCall_InsideTransaction_ShouldBeRefused() {
+        assertThrows(IllegalStateException.class,
+            () -> transactionTemplate.executeWithoutResult(status -> taskRepository.count()));
+    }
+
+    @Test
+    void findAllById_ShouldCollectTasksFromSeveralShards() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            ids.add(taskService.createTask("Task " + i, "Description " + i, false, null, null).getId());
+        }
+
+        List<Task> found = taskRepository.findAllById(ids);
+
+        assertEquals(9, found.size());
+    }
+
+    @Test
+    void findAllBy_ShouldPageThroughEveryShardInIdOrder() {
+        List<Long> createdIds = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            createdIds.add(taskService.createTask("Task " + i, "Description " + i, false, null, null).getId());
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            for (Task task : taskRepository.findAllBy(PageRequest.of(page, 5, Sort.by("id")))) {
+                ids.add(task.getId());
+            }
+        }
+
+        assertEquals(createdIds, ids);
+    }
+
+    @Test
+    void pagedQuery_SortedByNullableProperty_ShouldPutNullsWhereTheDatabaseDoes() {
+        LocalDateTime soon = LocalDateTime.now(ZoneOffset.UTC).plusMinutes(10);
+        List<Long> withoutDueAt = new ArrayList<>();
+        List<Long> withDueAt = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            if (i % 2 == 0) {
+                withoutDueAt.add(taskService.createTask("Task " + i, "Description " + i, false, null, null).getId());
+            } else {
+                withDueAt.add(taskService.createTask("Task " + i, "Description " + i, false,
+                    soon.plusMinutes(i), null).getId());
+            }
+        }
+
+        List<Long> ascending = new ArrayList<>();
+        List<Long> descending = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            for (Task task : taskRepository.findAllBy(PageRequest.of(page, 5, Sort.by(Sort.Order.asc("dueAt"))))) {
+                ascending.add(task.getId());
+            }
+            for (Task task : taskRepository.findAllBy(PageRequest.of(page, 5, Sort.by(Sort.Order.desc("dueAt"))))) {
+                descending.add(task.getId());
+            }
+        }
+
+        // Like MySQL: NULL is the smallest value, so first when ascending and last when descending
+        List<Long> expectedAscending = new ArrayList<>(withoutDueAt);
+        expectedAscending.addAll(withDueAt);
+        List<Long> expectedDescending = new ArrayList<>(withDueAt);
+        Collections.reverse(expectedDescending);
+        expectedDescending.addAll(withoutDueAt);
+        assertEquals(expectedAscending, ascending);
+        assertEquals(expectedDescending, descending);
+    }
+}
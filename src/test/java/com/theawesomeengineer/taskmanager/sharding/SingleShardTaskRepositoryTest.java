@@ -0,0 +1,72 @@
+package com.theawesomeengineer.taskmanager.sharding;
+
+import com.theawesomeengineer.taskmanager.entity.Task;
+import com.theawesomeengineer.taskmanager.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * With no additional shards (the default) TaskRepository must behave like a plain Spring Data repository:
+ * open-in-view stays on, calls join a surrounding transaction, and every repository method works.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:single0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@ActiveProfiles("test")
+class SingleShardTaskRepositoryTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository.deleteAll();
+    }
+
+    @Test
+    void openInView_ShouldStayOnByDefault() {
+        assertEquals(1, applicationContext.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class).length);
+    }
+
+    @Test
+    void repositoryCall_InsideTransaction_ShouldJoinItAndRollBackWithIt() {
+        // Act - save inside a transaction that is then rolled back
+        Long id = transactionTemplate.execute(status -> {
+            Task saved = taskRepository.save(new Task("Rolled back", "Never committed", false));
+            assertTrue(taskRepository.existsById(saved.getId()));
+            status.setRollbackOnly();
+            return saved.getId();
+        });
+
+        // Assert - the save was part of the surrounding transaction
+        assertFalse(taskRepository.existsById(id));
+    }
+
+    @Test
+    void unroutedRepositoryMethod_ShouldStillWork() {
+        taskRepository.save(new Task("B", "Second", false));
+        taskRepository.save(new Task("A", "First", false));
+
+        assertEquals("A", taskRepository.findAll(Sort.by("title")).get(0).getTitle());
+    }
+}
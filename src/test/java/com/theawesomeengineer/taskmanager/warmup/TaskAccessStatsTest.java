@@ -0,0 +1,86 @@
+package com.theawesomeengineer.taskmanager.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TaskAccessStats, saving to a temporary directory.
+ */
+class TaskAccessStatsTest {
+
+    @TempDir
+    Path directory;
+
+    private TaskAccessStats newStats(int maxTrackedIds) {
+        return new TaskAccessStats(directory.resolve("warmup/hot-task-ids.txt").toString(), maxTrackedIds, 2);
+    }
+
+    @Test
+    void getHottestIds_ShouldReturnMostReadFirst() {
+        // Arrange
+        TaskAccessStats stats = newStats(100);
+        stats.recordAccess(1L);
+        stats.recordAccess(2L);
+        stats.recordAccess(2L);
+        stats.recordAccess(3L);
+        stats.recordAccess(3L);
+        stats.recordAccess(3L);
+
+        // Act
+        List<Long> hottest = stats.getHottestIds(2);
+
+        // Assert
+        assertEquals(List.of(3L, 2L), hottest);
+    }
+
+    @Test
+    void recordAccess_WhenFull_ShouldOnlyCountTrackedIds() {
+        // Arrange
+        TaskAccessStats stats = newStats(2);
+        stats.recordAccess(1L);
+        stats.recordAccess(2L);
+
+        // Act
+        stats.recordAccess(3L);
+        stats.recordAccess(1L);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), stats.getHottestIds(10));
+    }
+
+    @Test
+    void save_ShouldBeReadBackByTheNextRun() {
+        // Arrange
+        TaskAccessStats stats = newStats(100);
+        stats.recordAccess(5L);
+        stats.recordAccess(7L);
+        stats.recordAccess(7L);
+        stats.recordAccess(9L);
+
+        // Act - only the 2 hottest are saved
+        stats.save();
+        List<Long> loaded = newStats(100).loadSavedHotIds();
+
+        // Assert
+        assertEquals(List.of(7L, 5L), loaded);
+    }
+
+    @Test
+    void save_WithNoReads_ShouldKeepThePreviousFile() {
+        // Arrange
+        TaskAccessStats firstRun = newStats(100);
+        firstRun.recordAccess(4L);
+        firstRun.save();
+
+        // Act - a run that was stopped before anything was read
+        newStats(100).save();
+
+        // Assert
+        assertEquals(List.of(4L), newStats(100).loadSavedHotIds());
+    }
+}